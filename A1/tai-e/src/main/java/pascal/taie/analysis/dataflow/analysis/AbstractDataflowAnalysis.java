@@ -23,6 +23,7 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.fact.CompactDataflowResult;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.solver.Solver;
 import pascal.taie.analysis.graph.cfg.CFG;
@@ -37,14 +38,31 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
 
     private final Solver<Node, Fact> solver;
 
+    /**
+     * Whether to keep only the facts at basic-block boundaries
+     * in the analysis results.
+     */
+    private final boolean compactResult;
+
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
-        solver = Solver.makeSolver(this);
+        solver = Solver.makeSolver(this, getOptions().getString("solver"));
+        compactResult = getOptions().getBooleanOrDefault("compact-result", false);
     }
 
     @Override
     public DataflowResult<Node, Fact> analyze(IR ir) {
         CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Node, Fact> result = solve(cfg);
+        return compactResult ?
+                new CompactDataflowResult<>(this, cfg, result) : result;
+    }
+
+    /**
+     * Solves this analysis on given CFG. This method may be called for
+     * different CFGs concurrently.
+     */
+    protected DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
         return solver.solve(cfg);
     }
 
@@ -61,4 +79,23 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
     public Fact transferEdge(Edge<Node> edge, Fact nodeFact) {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * By default, a data-flow analysis has finite lattice, and thus
+     * does not need widening.
+     */
+    @Override
+    public boolean needWidening() {
+        return false;
+    }
+
+    @Override
+    public Fact widen(Node node, Fact oldFact, Fact newFact) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Fact narrow(Node node, Fact oldFact, Fact newFact) {
+        throw new UnsupportedOperationException();
+    }
 }
@@ -73,4 +73,30 @@ public interface DataflowAnalysis<Node, Fact> {
      * Edge Transfer function for this analysis.
      */
     Fact transferEdge(Edge<Node> edge, Fact nodeFact);
+
+    /**
+     * @return true if this analysis needs widening at the heads of loops
+     * to terminate, i.e., its lattice has infinite ascending chains,
+     * otherwise false. Only solvers which iterate over the weak
+     * topological ordering of the CFG support widening.
+     */
+    boolean needWidening();
+
+    /**
+     * Widening operator, which is applied to the in (out) fact of a loop
+     * head for forward (backward) analysis.
+     *
+     * @param node    the loop head
+     * @param oldFact the fact of the previous iteration
+     * @param newFact the fact just computed from the predecessors
+     *                (successors) of node
+     * @return the widened fact, which may be newFact itself.
+     */
+    Fact widen(Node node, Fact oldFact, Fact newFact);
+
+    /**
+     * Narrowing operator, which is applied like {@link #widen} after
+     * the iteration with widening has stabilized.
+     */
+    Fact narrow(Node node, Fact oldFact, Fact newFact);
 }
@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.DenseVarSetFact;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
@@ -54,7 +55,7 @@ public class LiveVariableAnalysis extends
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
         //return the emptySet for initializing
-        return  new SetFact<>();
+        return new DenseVarSetFact();
     }
 
     @Override
@@ -62,7 +63,7 @@ public class LiveVariableAnalysis extends
 
         // TODO - finish me
         //return the emptySet for initializing
-        return new SetFact<>();
+        return new DenseVarSetFact();
     }
 
     @Override
@@ -0,0 +1,293 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Set fact of variables which stores the membership of each variable
+ * as a bit of a {@code long[]}, indexed by {@link Var#getIndex()}.
+ * Union, intersection, copy and equality between such facts are thus
+ * word-wise operations.
+ * <p>
+ * All variables in a fact must belong to the same method, as indexes
+ * of variables are only unique within the IR of a method.
+ */
+public class DenseVarSetFact extends SetFact<Var> {
+
+    private static final long[] EMPTY = {};
+
+    private final VarBitSet bits;
+
+    public DenseVarSetFact() {
+        this(new VarBitSet(null, EMPTY));
+    }
+
+    private DenseVarSetFact(VarBitSet bits) {
+        super(bits);
+        this.bits = bits;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<Var> filter) {
+        long[] words = bits.words;
+        boolean changed = false;
+        for (int w = 0; w < words.length; ++w) {
+            long word = words[w];
+            while (word != 0) {
+                long bit = word & -word;
+                word ^= bit;
+                int i = (w << 6) + Long.numberOfTrailingZeros(bit);
+                if (filter.test(bits.ir.getVar(i))) {
+                    words[w] &= ~bit;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean union(SetFact<Var> other) {
+        if (!(other instanceof DenseVarSetFact that)) {
+            return super.union(other);
+        }
+        if (bits.ir == null) {
+            bits.ir = that.bits.ir;
+        }
+        long[] otherWords = that.bits.words;
+        bits.ensureCapacity(otherWords.length);
+        long[] words = bits.words;
+        boolean changed = false;
+        for (int w = 0; w < otherWords.length; ++w) {
+            long old = words[w];
+            words[w] = old | otherWords[w];
+            changed |= words[w] != old;
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean intersect(SetFact<Var> other) {
+        if (!(other instanceof DenseVarSetFact that)) {
+            return super.intersect(other);
+        }
+        long[] words = bits.words;
+        long[] otherWords = that.bits.words;
+        boolean changed = false;
+        for (int w = 0; w < words.length; ++w) {
+            long old = words[w];
+            words[w] = w < otherWords.length ? old & otherWords[w] : 0;
+            changed |= words[w] != old;
+        }
+        return changed;
+    }
+
+    @Override
+    public void set(SetFact<Var> other) {
+        if (other instanceof DenseVarSetFact that) {
+            bits.ir = that.bits.ir;
+            bits.words = copyOf(that.bits.words);
+        } else {
+            super.set(other);
+        }
+    }
+
+    @Override
+    public DenseVarSetFact copy() {
+        return new DenseVarSetFact(new VarBitSet(bits.ir, copyOf(bits.words)));
+    }
+
+    private static long[] copyOf(long[] words) {
+        return words.length == 0 ? EMPTY : words.clone();
+    }
+
+    /**
+     * Two dense facts are equal if they contain the same variables,
+     * i.e., the same bits of the same IR. Empty facts are equal
+     * regardless of their IRs.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DenseVarSetFact that)) {
+            return super.equals(o);
+        }
+        long[] longer = bits.words.length >= that.bits.words.length ?
+                bits.words : that.bits.words;
+        long[] shorter = longer == bits.words ? that.bits.words : bits.words;
+        boolean empty = true;
+        for (int w = 0; w < longer.length; ++w) {
+            long word = longer[w];
+            if (word != (w < shorter.length ? shorter[w] : 0)) {
+                return false;
+            }
+            empty &= word == 0;
+        }
+        return empty || bits.ir == that.bits.ir;
+    }
+
+    /**
+     * Set of variables of an IR backed by a bit vector.
+     */
+    private static final class VarBitSet extends AbstractSet<Var> {
+
+        /**
+         * The IR which the variables in this set belong to.
+         * It is known once any variable is added to this set.
+         */
+        private IR ir;
+
+        private long[] words;
+
+        private VarBitSet(IR ir, long[] words) {
+            this.ir = ir;
+            this.words = words;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Var v)) {
+                return false;
+            }
+            int i = v.getIndex();
+            int w = i >>> 6;
+            return w < words.length && (words[w] & (1L << i)) != 0 &&
+                    ir.getVar(i) == v;
+        }
+
+        @Override
+        public boolean add(Var v) {
+            if (ir == null) {
+                ir = v.getMethod().getIR();
+            }
+            int i = v.getIndex();
+            int w = i >>> 6;
+            ensureCapacity(w + 1);
+            long old = words[w];
+            words[w] = old | (1L << i);
+            return words[w] != old;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) {
+                return false;
+            }
+            int i = ((Var) o).getIndex();
+            words[i >>> 6] &= ~(1L << i);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(words, 0);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            for (long word : words) {
+                if (word != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (long word : words) {
+                size += Long.bitCount(word);
+            }
+            return size;
+        }
+
+        @Override
+        public Iterator<Var> iterator() {
+            return new Iterator<>() {
+
+                private int next = nextSetBit(0);
+
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public Var next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next;
+                    next = nextSetBit(next + 1);
+                    return ir.getVar(last);
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    words[last >>> 6] &= ~(1L << last);
+                    last = -1;
+                }
+            };
+        }
+
+        private void ensureCapacity(int nWords) {
+            if (words.length < nWords) {
+                words = Arrays.copyOf(words,
+                        Math.max(nWords, ir.getVars().size() + 63 >>> 6));
+            }
+        }
+
+        private int nextSetBit(int from) {
+            int w = from >>> 6;
+            if (w >= words.length) {
+                return -1;
+            }
+            long word = words[w] & (-1L << from);
+            while (true) {
+                if (word != 0) {
+                    return (w << 6) + Long.numberOfTrailingZeros(word);
+                }
+                if (++w == words.length) {
+                    return -1;
+                }
+                word = words[w];
+            }
+        }
+    }
+}
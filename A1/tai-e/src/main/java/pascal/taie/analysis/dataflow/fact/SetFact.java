@@ -26,7 +26,6 @@ import pascal.taie.util.collection.CollectionUtils;
 import pascal.taie.util.collection.Sets;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -41,11 +40,20 @@ public class SetFact<E> {
     protected final Set<E> set;
 
     public SetFact(Collection<E> c) {
-        set = Sets.newHybridSet(c);
+        this(Sets.newHybridSet(c));
     }
 
     public SetFact() {
-        this(Collections.emptySet());
+        this(Sets.newHybridSet());
+    }
+
+    /**
+     * Constructor for subclasses which store elements in other
+     * representations. The fact stores its elements in given set,
+     * which is not copied.
+     */
+    protected SetFact(Set<E> set) {
+        this.set = set;
     }
 
     /**
@@ -132,7 +140,7 @@ public class SetFact<E> {
      * Creates and returns a copy of this fact.
      */
     public SetFact<E> copy() {
-        return new SetFact<>(this.set);
+        return new SetFact<>(Sets.newHybridSet(set));
     }
 
     /**
@@ -27,6 +27,7 @@ import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
 
 import java.util.HashSet;
 import java.util.List;
@@ -36,6 +37,10 @@ import java.util.Set;
 /**
  * Base class for data-flow analysis solver, which provides common
  * functionalities for different solver implementations.
+ * <p>
+ * A solver is shared by all methods of its analysis, which are analyzed
+ * in parallel, so implementations must keep the per-CFG state of
+ * {@link #solve(CFG)} in local variables or in the returned result.
  *
  * @param <Node> type of CFG nodes
  * @param <Fact> type of data-flow facts
@@ -56,6 +61,24 @@ public abstract class Solver<Node, Fact> {
         return new IterativeSolver<>(analysis);
     }
 
+    /**
+     * Static factory method to create a new solver of given kind.
+     *
+     * @param kind "iterative" (default) for round-robin iteration over
+     *             all nodes, or "wto" for chaotic iteration over the weak
+     *             topological ordering of the CFG.
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, String kind) {
+        if (kind == null || kind.equals("iterative")) {
+            return makeSolver(analysis);
+        } else if (kind.equals("wto")) {
+            return new WTOSolver<>(analysis);
+        } else {
+            throw new ConfigException("Unknown data-flow solver: " + kind);
+        }
+    }
+
     /**
      * Starts this solver on the given CFG.
      *
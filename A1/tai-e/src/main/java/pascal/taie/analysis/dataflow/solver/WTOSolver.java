@@ -0,0 +1,153 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.solver.WeakTopologicalOrder.Element;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+
+import java.util.List;
+
+/**
+ * Solver which performs chaotic iteration over the weak topological
+ * ordering of the CFG, i.e., Bourdoncle's recursive iteration strategy:
+ * the nodes outside loops are visited once in topological order, and
+ * each loop (component) is iterated until its head stabilizes, with
+ * the nested loops stabilized in each iteration.
+ * <p>
+ * If the analysis {@link DataflowAnalysis#needWidening() needs widening},
+ * the facts of loop heads are widened until the component stabilizes,
+ * and then narrowed until they stabilize again.
+ */
+class WTOSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    /**
+     * Operator to apply to the facts of loop heads.
+     */
+    private enum Mode {
+        NONE, WIDEN, NARROW
+    }
+
+    WTOSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        for (Node node : cfg) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, cfg.isEntry(node) ?
+                    analysis.newBoundaryFact(cfg) : analysis.newInitialFact());
+        }
+    }
+
+    @Override
+    protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        for (Node node : cfg) {
+            result.setInFact(node, cfg.isExit(node) ?
+                    analysis.newBoundaryFact(cfg) : analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        iterate(new WeakTopologicalOrder<>(cfg, true).getElements(), cfg, result);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        iterate(new WeakTopologicalOrder<>(cfg, false).getElements(), cfg, result);
+    }
+
+    private void iterate(List<Element<Node>> elements,
+                         CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        for (Element<Node> element : elements) {
+            if (element.isComponent()) {
+                stabilize(element, cfg, result);
+            } else {
+                update(element.head(), Mode.NONE, cfg, result);
+            }
+        }
+    }
+
+    /**
+     * Iterates given component until the fact of its head stabilizes.
+     */
+    private void stabilize(Element<Node> component,
+                           CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        Node head = component.head();
+        boolean widening = analysis.needWidening();
+        Mode mode = widening ? Mode.WIDEN : Mode.NONE;
+        update(head, mode, cfg, result);
+        do {
+            iterate(component.component(), cfg, result);
+        } while (update(head, mode, cfg, result));
+        if (widening) {
+            while (update(head, Mode.NARROW, cfg, result)) {
+                iterate(component.component(), cfg, result);
+            }
+        }
+    }
+
+    /**
+     * Recomputes the facts of given node.
+     *
+     * @return true if the out (in) fact of node has been changed
+     * for forward (backward) analysis.
+     */
+    private boolean update(Node node, Mode mode,
+                           CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        boolean forward = analysis.isForward();
+        if (forward ? cfg.isEntry(node) : cfg.isExit(node)) {
+            return false;
+        }
+        Fact fact = analysis.newInitialFact();
+        for (Edge<Node> edge : forward ?
+                cfg.getInEdgesOf(node) : cfg.getOutEdgesOf(node)) {
+            Fact nodeFact = forward ?
+                    result.getOutFact(edge.getSource()) :
+                    result.getInFact(edge.getTarget());
+            if (analysis.needTransferEdge(edge)) {
+                nodeFact = analysis.transferEdge(edge, nodeFact);
+            }
+            analysis.meetInto(nodeFact, fact);
+        }
+        Fact oldFact = forward ? result.getInFact(node) : result.getOutFact(node);
+        fact = switch (mode) {
+            case NONE -> fact;
+            case WIDEN -> analysis.widen(node, oldFact, fact);
+            case NARROW -> analysis.narrow(node, oldFact, fact);
+        };
+        if (forward) {
+            result.setInFact(node, fact);
+            return analysis.transferNode(node, fact, result.getOutFact(node));
+        } else {
+            result.setOutFact(node, fact);
+            return analysis.transferNode(node, result.getInFact(node), fact);
+        }
+    }
+}
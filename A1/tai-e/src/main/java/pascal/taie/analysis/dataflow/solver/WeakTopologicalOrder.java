@@ -0,0 +1,223 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Weak topological ordering (WTO) of the nodes of a CFG, as proposed by
+ * Bourdoncle in "Efficient chaotic iteration strategies with widenings".
+ * <p>
+ * A WTO is a list of elements, each of which is either a single node or
+ * a component, i.e., a head node followed by a (nested) WTO of the other
+ * nodes of a strongly connected component. The heads of the components
+ * are the places where loops are entered, so they are the widening points.
+ * <p>
+ * The WTO is built by recursive decomposition of strongly connected
+ * components: each component is computed by (iterative) Tarjan's algorithm,
+ * its first visited node becomes the head, and the rest of the component,
+ * without the edges into the head, is decomposed again. Only the loop
+ * nesting depth is bounded by the call stack.
+ * <p>
+ * For backward analyses, the WTO is built on the reversed CFG, starting
+ * from the exit node.
+ *
+ * @param <Node> type of CFG nodes
+ */
+class WeakTopologicalOrder<Node> {
+
+    /**
+     * Element of a WTO.
+     *
+     * @param head      the node if this element is a single node,
+     *                  or the head of the component.
+     * @param component the elements of the component after the head,
+     *                  or null if this element is a single node.
+     */
+    record Element<Node>(Node head, @Nullable List<Element<Node>> component) {
+
+        boolean isComponent() {
+            return component != null;
+        }
+    }
+
+    private final CFG<Node> cfg;
+
+    private final boolean forward;
+
+    /**
+     * Position of each node in {@link CFG#getNodes()}, used to keep
+     * the nodes of components in a deterministic order.
+     */
+    private final Map<Node, Integer> positions = new HashMap<>();
+
+    private final List<Element<Node>> elements;
+
+    WeakTopologicalOrder(CFG<Node> cfg, boolean forward) {
+        this.cfg = cfg;
+        this.forward = forward;
+        Set<Node> nodes = new LinkedHashSet<>();
+        nodes.add(forward ? cfg.getEntry() : cfg.getExit());
+        nodes.addAll(cfg.getNodes());
+        for (Node node : nodes) {
+            positions.put(node, positions.size());
+        }
+        elements = build(nodes, nodes);
+    }
+
+    List<Element<Node>> getElements() {
+        return elements;
+    }
+
+    private Collection<Node> getSuccsOf(Node node) {
+        return forward ? cfg.getSuccsOf(node) : cfg.getPredsOf(node);
+    }
+
+    /**
+     * Builds the WTO of the subgraph induced by given scope.
+     *
+     * @param roots the nodes to start the depth-first search from,
+     *              in order. Nodes of the scope which are not reachable
+     *              from roots are visited afterwards.
+     * @param scope the nodes of the subgraph.
+     */
+    private List<Element<Node>> build(Collection<Node> roots, Set<Node> scope) {
+        List<List<Node>> sccs = new ArrayList<>();
+        Map<Node, Integer> index = new HashMap<>();
+        Map<Node, Integer> lowLink = new HashMap<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        Set<Node> onStack = new HashSet<>();
+        Deque<Node> callStack = new ArrayDeque<>();
+        Deque<Iterator<Node>> iterators = new ArrayDeque<>();
+        List<Node> allRoots = new ArrayList<>(roots);
+        allRoots.addAll(scope);
+        for (Node root : allRoots) {
+            if (!scope.contains(root) || index.containsKey(root)) {
+                continue;
+            }
+            visit(root, index, lowLink, stack, onStack, callStack, iterators);
+            while (!callStack.isEmpty()) {
+                Node node = callStack.peek();
+                Iterator<Node> succs = iterators.peek();
+                if (succs.hasNext()) {
+                    Node succ = succs.next();
+                    if (!scope.contains(succ)) {
+                        continue;
+                    }
+                    if (!index.containsKey(succ)) {
+                        visit(succ, index, lowLink, stack, onStack, callStack, iterators);
+                    } else if (onStack.contains(succ)) {
+                        lowLink.put(node, Math.min(lowLink.get(node), index.get(succ)));
+                    }
+                } else {
+                    callStack.pop();
+                    iterators.pop();
+                    if (lowLink.get(node).equals(index.get(node))) {
+                        // node is the first visited node of a SCC
+                        List<Node> scc = new ArrayList<>();
+                        Node member;
+                        do {
+                            member = stack.pop();
+                            onStack.remove(member);
+                            scc.add(member);
+                        } while (member != node);
+                        Collections.reverse(scc);
+                        sccs.add(scc);
+                    }
+                    Node parent = callStack.peek();
+                    if (parent != null) {
+                        lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(node)));
+                    }
+                }
+            }
+        }
+        // Tarjan's algorithm finds SCCs in reverse topological order
+        Collections.reverse(sccs);
+        List<Element<Node>> result = new ArrayList<>(sccs.size());
+        for (List<Node> scc : sccs) {
+            Node head = scc.get(0);
+            if (scc.size() == 1 && !getSuccsOf(head).contains(head)) {
+                result.add(new Element<>(head, null));
+            } else {
+                scc.sort(Comparator.comparing(positions::get));
+                Set<Node> subScope = new LinkedHashSet<>(scc);
+                subScope.remove(head);
+                result.add(new Element<>(head, build(getSuccsOf(head), subScope)));
+            }
+        }
+        return result;
+    }
+
+    private void visit(Node node, Map<Node, Integer> index, Map<Node, Integer> lowLink,
+                       Deque<Node> stack, Set<Node> onStack,
+                       Deque<Node> callStack, Deque<Iterator<Node>> iterators) {
+        index.put(node, index.size());
+        lowLink.put(node, index.get(node));
+        stack.push(node);
+        onStack.add(node);
+        callStack.push(node);
+        iterators.push(getSuccsOf(node).iterator());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        append(builder, elements);
+        return builder.toString();
+    }
+
+    private static <Node> void append(StringBuilder builder, List<Element<Node>> elements) {
+        for (int i = 0; i < elements.size(); ++i) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            Element<Node> element = elements.get(i);
+            if (element.isComponent()) {
+                builder.append('(').append(element.head());
+                if (!element.component().isEmpty()) {
+                    builder.append(' ');
+                    append(builder, element.component());
+                }
+                builder.append(')');
+            } else {
+                builder.append(element.head());
+            }
+        }
+    }
+}
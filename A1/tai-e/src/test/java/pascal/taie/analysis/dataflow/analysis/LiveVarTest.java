@@ -32,6 +32,15 @@ public class LiveVarTest {
                 LiveVariableAnalysis.ID, "strongly:false");
     }
 
+    /**
+     * Solves with the WTO solver, whose results must be the same as
+     * the ones of the iterative solver, i.e., the expected results.
+     */
+    void testLVWithWTO(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/livevar",
+                LiveVariableAnalysis.ID, "strongly:false;solver:wto");
+    }
+
     @Test
     public void testAssign() {
         testLV("Assign");
@@ -61,4 +70,34 @@ public class LiveVarTest {
     public void Reference() {
         testLV("Reference");
     }
+
+    @Test
+    public void testAssignWithWTO() {
+        testLVWithWTO("Assign");
+    }
+
+    @Test
+    public void testBranchWithWTO() {
+        testLVWithWTO("Branch");
+    }
+
+    @Test
+    public void testBranchLoopWithWTO() {
+        testLVWithWTO("BranchLoop");
+    }
+
+    @Test
+    public void testArrayWithWTO() {
+        testLVWithWTO("Array");
+    }
+
+    @Test
+    public void testFibonacciWithWTO() {
+        testLVWithWTO("Fibonacci");
+    }
+
+    @Test
+    public void testReferenceWithWTO() {
+        testLVWithWTO("Reference");
+    }
 }
@@ -0,0 +1,190 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.VoidType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DenseVarSetFactTest {
+
+    private static final JClass CLASS = new JClass(null, "T");
+
+    /**
+     * Method with given number of variables, whose IR is built without
+     * the world.
+     */
+    private static class MockMethod extends JMethod {
+
+        private final IR ir;
+
+        private MockMethod(String name, int varCount) {
+            super(CLASS, name, Set.of(), List.of(), VoidType.VOID, List.of(),
+                    AnnotationHolder.emptyHolder(), null, null);
+            List<Var> vars = new ArrayList<>();
+            for (int i = 0; i < varCount; ++i) {
+                vars.add(new Var(this, name + "v" + i, null, i));
+            }
+            ir = new DefaultIR(this, null, List.of(), Set.of(), vars,
+                    List.of(), List.of());
+        }
+
+        @Override
+        public IR getIR() {
+            return ir;
+        }
+
+        private Var getVar(int i) {
+            return ir.getVar(i);
+        }
+    }
+
+    // more than two words of variables
+    private final MockMethod m = new MockMethod("m", 150);
+
+    private final Random random = new Random(1);
+
+    private DenseVarSetFact dense(int... indexes) {
+        DenseVarSetFact fact = new DenseVarSetFact();
+        for (int i : indexes) {
+            fact.add(m.getVar(i));
+        }
+        return fact;
+    }
+
+    private DenseVarSetFact randomDense() {
+        DenseVarSetFact fact = new DenseVarSetFact();
+        int n = random.nextInt(20);
+        for (int i = 0; i < n; ++i) {
+            fact.add(m.getVar(random.nextInt(m.ir.getVars().size())));
+        }
+        return fact;
+    }
+
+    private static SetFact<Var> toSetFact(SetFact<Var> fact) {
+        return new SetFact<>(fact.stream().toList());
+    }
+
+    @Test
+    public void testAddRemove() {
+        DenseVarSetFact fact = new DenseVarSetFact();
+        assertTrue(fact.isEmpty());
+        assertTrue(fact.add(m.getVar(0)));
+        assertFalse(fact.add(m.getVar(0)));
+        assertTrue(fact.add(m.getVar(64)));
+        assertTrue(fact.add(m.getVar(149)));
+        assertEquals(3, fact.size());
+        assertTrue(fact.contains(m.getVar(64)));
+        assertFalse(fact.contains(m.getVar(63)));
+        assertTrue(fact.remove(m.getVar(64)));
+        assertFalse(fact.remove(m.getVar(64)));
+        assertFalse(fact.remove(m.getVar(100)));
+        assertEquals(List.of(m.getVar(0), m.getVar(149)), fact.stream().toList());
+        fact.clear();
+        assertTrue(fact.isEmpty());
+        assertEquals(0, fact.size());
+    }
+
+    @Test
+    public void testOperationsAgreeWithSetFact() {
+        for (int i = 0; i < 500; ++i) {
+            DenseVarSetFact a = randomDense();
+            DenseVarSetFact b = randomDense();
+            SetFact<Var> sa = toSetFact(a);
+            SetFact<Var> sb = toSetFact(b);
+            assertEquals(sa, a);
+            assertEquals(a, sa);
+            assertEquals(sa.hashCode(), a.hashCode());
+            assertEquals(sa.unionWith(sb), a.unionWith(b));
+            assertEquals(sa.intersectWith(sb), a.intersectWith(b));
+            // mix dense and non-dense facts
+            assertEquals(sa.unionWith(sb), a.unionWith(sb));
+            assertEquals(sa.intersectWith(sb), a.intersectWith(sb));
+            DenseVarSetFact copy = a.copy();
+            assertEquals(sa.union(sb), copy.union(b));
+            assertEquals(sa, copy);
+            assertEquals(toSetFact(a), a);
+            int bound = random.nextInt(150);
+            assertEquals(sa.removeIf(v -> v.getIndex() < bound),
+                    copy.removeIf(v -> v.getIndex() < bound));
+            assertEquals(sa, copy);
+            copy.set(b);
+            assertEquals(b, copy);
+            copy.set(sa);
+            assertEquals(sa, copy);
+            assertEquals(sa.toString(), copy.toString());
+        }
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        DenseVarSetFact fact = dense(1, 70);
+        DenseVarSetFact copy = fact.copy();
+        copy.add(m.getVar(2));
+        copy.remove(m.getVar(70));
+        assertEquals(dense(1, 70), fact);
+        assertEquals(dense(1, 2), copy);
+        DenseVarSetFact set = new DenseVarSetFact();
+        set.set(fact);
+        set.clear();
+        assertEquals(dense(1, 70), fact);
+    }
+
+    @Test
+    public void testEqualsComparesIR() {
+        MockMethod other = new MockMethod("other", 150);
+        DenseVarSetFact a = dense(3, 100);
+        DenseVarSetFact b = new DenseVarSetFact();
+        b.add(other.getVar(3));
+        b.add(other.getVar(100));
+        // same bits of different IRs
+        assertNotEquals(a, b);
+        assertNotEquals(b, a);
+        assertFalse(a.contains(other.getVar(3)));
+        assertFalse(a.remove(other.getVar(3)));
+        assertEquals(dense(3, 100), a);
+        // empty facts are equal regardless of their IRs
+        a.clear();
+        b.clear();
+        assertEquals(a, b);
+        assertEquals(new DenseVarSetFact(), a);
+        assertEquals(new SetFact<Var>(), a);
+        assertEquals(a.hashCode(), b.hashCode());
+    }
+}
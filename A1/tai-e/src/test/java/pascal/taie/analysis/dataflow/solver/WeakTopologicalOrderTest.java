@@ -0,0 +1,235 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Test;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WeakTopologicalOrderTest {
+
+    @Test
+    public void testStraightLine() {
+        TestCFG cfg = new TestCFG(0, 3)
+                .edge(0, 1).edge(1, 2).edge(2, 3);
+        assertEquals("0 1 2 3", wto(cfg, true));
+        assertEquals("3 2 1 0", wto(cfg, false));
+    }
+
+    @Test
+    public void testLoop() {
+        TestCFG cfg = new TestCFG(0, 3)
+                .edge(0, 1).edge(1, 2).edge(2, 1).edge(1, 3);
+        assertEquals("0 (1 2) 3", wto(cfg, true));
+        assertEquals("3 (1 2) 0", wto(cfg, false));
+    }
+
+    @Test
+    public void testNestedLoops() {
+        TestCFG cfg = new TestCFG(0, 5)
+                .edge(0, 1).edge(1, 2).edge(2, 3).edge(3, 2)
+                .edge(3, 4).edge(4, 1).edge(4, 5);
+        assertEquals("0 (1 (2 3) 4) 5", wto(cfg, true));
+        assertEquals("5 (4 (3 2) 1) 0", wto(cfg, false));
+    }
+
+    @Test
+    public void testSelfLoop() {
+        TestCFG cfg = new TestCFG(0, 2)
+                .edge(0, 1).edge(1, 1).edge(1, 2);
+        assertEquals("0 (1) 2", wto(cfg, true));
+        assertEquals("2 (1) 0", wto(cfg, false));
+    }
+
+    @Test
+    public void testSelfLoopInLoop() {
+        TestCFG cfg = new TestCFG(0, 3)
+                .edge(0, 1).edge(1, 2).edge(2, 2).edge(2, 1).edge(1, 3);
+        assertEquals("0 (1 (2)) 3", wto(cfg, true));
+    }
+
+    @Test
+    public void testUnreachable() {
+        // 2 is unreachable from the entry, and 4 <-> 5 is
+        // an unreachable loop which flows into the exit
+        TestCFG cfg = new TestCFG(0, 3)
+                .edge(0, 1).edge(1, 3).edge(2, 1)
+                .edge(4, 5).edge(5, 4).edge(5, 3);
+        assertEquals("(4 5) 2 0 1 3", wto(cfg, true));
+        assertEquals("3 (5 4) 1 2 0", wto(cfg, false));
+    }
+
+    /**
+     * Builds the WTO of given CFG, checks that it contains each node
+     * exactly once and that it is a weak topological ordering, i.e.,
+     * each edge goes forward in the WTO unless it goes to the head of
+     * a component containing its source.
+     *
+     * @return the string representation of the WTO.
+     */
+    private static String wto(CFG<Integer> cfg, boolean forward) {
+        WeakTopologicalOrder<Integer> wto = new WeakTopologicalOrder<>(cfg, forward);
+        List<Integer> order = new ArrayList<>();
+        MultiMap<Integer, Integer> components = Maps.newMultiMap();
+        flatten(wto.getElements(), order, components);
+        assertEquals(cfg.getNumberOfNodes(), order.size());
+        assertEquals(cfg.getNodes(), Set.copyOf(order));
+        for (Integer source : cfg) {
+            for (Integer target : forward ?
+                    cfg.getSuccsOf(source) : cfg.getPredsOf(source)) {
+                assertTrue(source + " -> " + target + " in " + wto,
+                        order.indexOf(source) < order.indexOf(target) ||
+                                components.get(target).contains(source));
+            }
+        }
+        return wto.toString();
+    }
+
+    /**
+     * Collects the nodes of given elements in order, and the nodes
+     * of the components (including the heads) by their heads.
+     */
+    private static void flatten(List<WeakTopologicalOrder.Element<Integer>> elements,
+                                List<Integer> order,
+                                MultiMap<Integer, Integer> components) {
+        for (WeakTopologicalOrder.Element<Integer> element : elements) {
+            int start = order.size();
+            order.add(element.head());
+            if (element.isComponent()) {
+                flatten(element.component(), order, components);
+                components.putAll(element.head(),
+                        order.subList(start, order.size()));
+            }
+        }
+    }
+
+    /**
+     * CFG of integers, whose nodes are added along with the edges.
+     * Only the queries on nodes, which are used by WTO, are supported.
+     */
+    private static class TestCFG implements CFG<Integer> {
+
+        private final int entry;
+
+        private final int exit;
+
+        private final Set<Integer> nodes = new LinkedHashSet<>();
+
+        private final MultiMap<Integer, Integer> preds = Maps.newMultiMap();
+
+        private final MultiMap<Integer, Integer> succs = Maps.newMultiMap();
+
+        private TestCFG(int entry, int exit) {
+            this.entry = entry;
+            this.exit = exit;
+            nodes.add(entry);
+            nodes.add(exit);
+        }
+
+        private TestCFG edge(int source, int target) {
+            nodes.add(source);
+            nodes.add(target);
+            succs.put(source, target);
+            preds.put(target, source);
+            return this;
+        }
+
+        @Override
+        public IR getIR() {
+            return null;
+        }
+
+        @Override
+        public JMethod getMethod() {
+            return null;
+        }
+
+        @Override
+        public Integer getEntry() {
+            return entry;
+        }
+
+        @Override
+        public Integer getExit() {
+            return exit;
+        }
+
+        @Override
+        public boolean isEntry(Integer node) {
+            return node == entry;
+        }
+
+        @Override
+        public boolean isExit(Integer node) {
+            return node == exit;
+        }
+
+        @Override
+        public Set<Edge<Integer>> getInEdgesOf(Integer node) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Set<Edge<Integer>> getOutEdgesOf(Integer node) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasNode(Integer node) {
+            return nodes.contains(node);
+        }
+
+        @Override
+        public boolean hasEdge(Integer source, Integer target) {
+            return getSuccsOf(source).contains(target);
+        }
+
+        @Override
+        public Set<Integer> getPredsOf(Integer node) {
+            return preds.get(node);
+        }
+
+        @Override
+        public Set<Integer> getSuccsOf(Integer node) {
+            return succs.get(node);
+        }
+
+        @Override
+        public Set<Integer> getNodes() {
+            return nodes;
+        }
+    }
+}
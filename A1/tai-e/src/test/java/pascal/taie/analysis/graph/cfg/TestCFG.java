@@ -0,0 +1,139 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Set;
+
+/**
+ * CFG of integer nodes for tests, which is built edge by edge
+ * without IR. It is in this package as edges can only be created here.
+ */
+public class TestCFG implements CFG<Integer> {
+
+    private final int entry;
+
+    private final int exit;
+
+    private final Set<Integer> nodes = Sets.newHybridOrderedSet();
+
+    private final MultiMap<Integer, Edge<Integer>> inEdges = Maps.newMultiMap();
+
+    private final MultiMap<Integer, Edge<Integer>> outEdges = Maps.newMultiMap();
+
+    public TestCFG(int entry, int exit) {
+        this.entry = entry;
+        this.exit = exit;
+        nodes.add(entry);
+        nodes.add(exit);
+    }
+
+    /**
+     * Adds an edge from source to target, if absent.
+     */
+    public TestCFG edge(int source, int target) {
+        if (!hasEdge(source, target)) {
+            nodes.add(source);
+            nodes.add(target);
+            Edge<Integer> edge = new Edge<>(Edge.Kind.FALL_THROUGH, source, target);
+            outEdges.put(source, edge);
+            inEdges.put(target, edge);
+        }
+        return this;
+    }
+
+    @Override
+    public IR getIR() {
+        return null;
+    }
+
+    @Override
+    public JMethod getMethod() {
+        return null;
+    }
+
+    @Override
+    public Integer getEntry() {
+        return entry;
+    }
+
+    @Override
+    public Integer getExit() {
+        return exit;
+    }
+
+    @Override
+    public boolean isEntry(Integer node) {
+        return node == entry;
+    }
+
+    @Override
+    public boolean isExit(Integer node) {
+        return node == exit;
+    }
+
+    @Override
+    public Set<Edge<Integer>> getInEdgesOf(Integer node) {
+        return inEdges.get(node);
+    }
+
+    @Override
+    public Set<Edge<Integer>> getOutEdgesOf(Integer node) {
+        return outEdges.get(node);
+    }
+
+    @Override
+    public boolean hasNode(Integer node) {
+        return nodes.contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(Integer source, Integer target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<Integer> getPredsOf(Integer node) {
+        Set<Integer> preds = Sets.newHybridOrderedSet();
+        getInEdgesOf(node).forEach(e -> preds.add(e.getSource()));
+        return preds;
+    }
+
+    @Override
+    public Set<Integer> getSuccsOf(Integer node) {
+        Set<Integer> succs = Sets.newHybridOrderedSet();
+        getOutEdgesOf(node).forEach(e -> succs.add(e.getTarget()));
+        return succs;
+    }
+
+    @Override
+    public Set<Integer> getNodes() {
+        return nodes;
+    }
+}
@@ -23,10 +23,10 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.MapFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
-import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.DefinitionStmt;
 import pascal.taie.ir.stmt.Stmt;
@@ -43,8 +43,19 @@ public class ConstantPropagation extends
 
     public static final String ID = "constprop";
 
+    /**
+     * Whether to solve constant propagation sparsely along def-use chains.
+     */
+    private final boolean sparse;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        sparse = getOptions().getBooleanOrDefault("sparse", false);
+    }
+
+    @Override
+    protected DataflowResult<Stmt, CPFact> solve(CFG<Stmt> cfg) {
+        return sparse ? new SparseCPSolver(this, cfg).solve() : super.solve(cfg);
     }
 
     @Override
@@ -148,6 +159,85 @@ public class ConstantPropagation extends
         return false;
     }
 
+    /**
+     * Evaluates the {@link Value} of given binary expression, i.e.,
+     * {@link ArithmeticExp}, {@link BitwiseExp}, {@link ShiftExp} or
+     * {@link ConditionExp}, whose operands can hold integer values.
+     * The result is either UNDEF, NAC, or a constant obtained by
+     * {@link Value#makeConstant(int)}, so this method allocates no
+     * new objects unless the constant misses the intern cache.
+     *
+     * @param exp the binary expression to be evaluated
+     * @param in  IN fact of the statement
+     * @return the resulting {@link Value}
+     */
+    public static Value evaluateBinary(BinaryExp exp, CPFact in) {
+        Var operand1 = exp.getOperand1();
+        Var operand2 = exp.getOperand2();
+        if (!canHoldInt(operand1) || !canHoldInt(operand2)) {
+            return Value.getNAC();
+        }
+        return evaluateBinary(exp.getOperator(), in.get(operand1), in.get(operand2));
+    }
+
+    /**
+     * Evaluates the {@link Value} of {@code v1 op v2}.
+     * Division and remainder by constant zero yield UNDEF.
+     */
+    public static Value evaluateBinary(BinaryExp.Op op, Value v1, Value v2) {
+        if (v2.isConstant() && v2.getConstant() == 0 &&
+                (op == ArithmeticExp.Op.DIV || op == ArithmeticExp.Op.REM)) {
+            return Value.getUndef();
+        }
+        if (v1.isConstant() && v2.isConstant()) {
+            return Value.makeConstant(
+                    fold(op, v1.getConstant(), v2.getConstant()));
+        }
+        if (v1.isNAC() || v2.isNAC()) {
+            return Value.getNAC();
+        }
+        return Value.getUndef();
+    }
+
+    /**
+     * @return the result of {@code i1 op i2}, where a condition
+     * is represented as 1 (true) or 0 (false).
+     */
+    private static int fold(BinaryExp.Op op, int i1, int i2) {
+        if (op instanceof ArithmeticExp.Op arithmeticOp) {
+            return switch (arithmeticOp) {
+                case ADD -> i1 + i2;
+                case SUB -> i1 - i2;
+                case MUL -> i1 * i2;
+                case DIV -> i1 / i2;
+                case REM -> i1 % i2;
+            };
+        } else if (op instanceof BitwiseExp.Op bitwiseOp) {
+            return switch (bitwiseOp) {
+                case OR -> i1 | i2;
+                case AND -> i1 & i2;
+                case XOR -> i1 ^ i2;
+            };
+        } else if (op instanceof ShiftExp.Op shiftOp) {
+            return switch (shiftOp) {
+                case SHL -> i1 << i2;
+                case SHR -> i1 >> i2;
+                case USHR -> i1 >>> i2;
+            };
+        } else if (op instanceof ConditionExp.Op conditionOp) {
+            boolean result = switch (conditionOp) {
+                case EQ -> i1 == i2;
+                case NE -> i1 != i2;
+                case LT -> i1 < i2;
+                case GT -> i1 > i2;
+                case LE -> i1 <= i2;
+                case GE -> i1 >= i2;
+            };
+            return result ? 1 : 0;
+        }
+        throw new AnalysisException("Unexpected binary operator: " + op);
+    }
+
     /**
      * Evaluates the {@link Value} of given expression.
      *
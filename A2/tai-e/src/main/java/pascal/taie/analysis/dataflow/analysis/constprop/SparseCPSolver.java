@@ -0,0 +1,301 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse solver of constant propagation, which propagates values along
+ * def-use chains instead of propagating whole facts through every node.
+ * <p>
+ * The def-use chains are built from reaching definitions of the variables
+ * that can hold integers. The boundary fact is modeled as definitions at
+ * the entry of the CFG. The value of each definition is computed by
+ * {@link ConstantPropagation#evaluate(pascal.taie.ir.exp.Exp, CPFact)} on
+ * the values of its uses, where the value of a use is the meet (by
+ * {@link ConstantPropagation#meetValue(Value, Value)}) of the values of its
+ * reaching definitions. When the value of a definition changes, only the
+ * statements that use it are re-evaluated.
+ * <p>
+ * Null returned by {@link ConstantPropagation#newBoundaryFact},
+ * {@link ConstantPropagation#evaluate} or
+ * {@link ConstantPropagation#meetValue} is treated as UNDEF, so that
+ * the solver does not crash before these methods are finished.
+ * <p>
+ * The fixed point is the same as that of the dense solver, and it is finally
+ * expanded to a {@link DataflowResult} holding the in/out facts of all nodes.
+ */
+class SparseCPSolver {
+
+    private final ConstantPropagation analysis;
+
+    private final CFG<Stmt> cfg;
+
+    /**
+     * Variable of each definition.
+     */
+    private final List<Var> defVars = new ArrayList<>();
+
+    /**
+     * Statement of each definition, or the entry node for boundary definitions.
+     */
+    private final List<Stmt> defStmts = new ArrayList<>();
+
+    /**
+     * Current value of each definition.
+     */
+    private final List<Value> defValues = new ArrayList<>();
+
+    /**
+     * Definition defined by each node, if any.
+     */
+    private final Map<Stmt, Integer> defOf = new HashMap<>();
+
+    /**
+     * Definitions of each variable.
+     */
+    private final Map<Var, BitSet> defsOfVar = new HashMap<>();
+
+    /**
+     * Definitions reaching the entry (in) of each node.
+     */
+    private final Map<Stmt, BitSet> reachIn = new HashMap<>();
+
+    /**
+     * Definitions reaching the exit (out) of each node.
+     */
+    private final Map<Stmt, BitSet> reachOut = new HashMap<>();
+
+    SparseCPSolver(ConstantPropagation analysis, CFG<Stmt> cfg) {
+        this.analysis = analysis;
+        this.cfg = cfg;
+    }
+
+    DataflowResult<Stmt, CPFact> solve() {
+        collectDefinitions();
+        computeReachingDefinitions();
+        int visits = propagate();
+        DataflowResult<Stmt, CPFact> result = makeResult();
+        result.setNodeVisits(visits);
+        return result;
+    }
+
+    private void collectDefinitions() {
+        Stmt entry = cfg.getEntry();
+        CPFact boundary = analysis.newBoundaryFact(cfg);
+        if (boundary != null) {
+            boundary.forEach((var, value) ->
+                    addDefinition(entry, var, value));
+        }
+        for (Stmt stmt : cfg) {
+            if (stmt instanceof DefinitionStmt<?, ?> def) {
+                LValue lvalue = def.getLValue();
+                if (lvalue instanceof Var var &&
+                        ConstantPropagation.canHoldInt(var)) {
+                    defOf.put(stmt, addDefinition(stmt, var, Value.getUndef()));
+                }
+            }
+        }
+    }
+
+    private int addDefinition(Stmt stmt, Var var, Value value) {
+        int id = defVars.size();
+        defVars.add(var);
+        defStmts.add(stmt);
+        defValues.add(value);
+        defsOfVar.computeIfAbsent(var, v -> new BitSet()).set(id);
+        return id;
+    }
+
+    /**
+     * Computes reaching definitions by a classic bit-vector data-flow analysis.
+     */
+    private void computeReachingDefinitions() {
+        BitSet entryDefs = new BitSet();
+        for (int id = 0; id < defStmts.size(); ++id) {
+            if (defStmts.get(id) == cfg.getEntry()) {
+                entryDefs.set(id);
+            }
+        }
+        Deque<Stmt> workList = new ArrayDeque<>();
+        Set<Stmt> inWorkList = new HashSet<>();
+        for (Stmt node : cfg) {
+            reachIn.put(node, new BitSet());
+            reachOut.put(node, cfg.isEntry(node) ? entryDefs : new BitSet());
+            workList.add(node);
+            inWorkList.add(node);
+        }
+        while (!workList.isEmpty()) {
+            Stmt node = workList.poll();
+            inWorkList.remove(node);
+            if (cfg.isEntry(node)) {
+                addSuccsOf(node, workList, inWorkList);
+                continue;
+            }
+            BitSet in = reachIn.get(node);
+            for (Stmt pred : cfg.getPredsOf(node)) {
+                in.or(reachOut.get(pred));
+            }
+            BitSet out = (BitSet) in.clone();
+            Integer def = defOf.get(node);
+            if (def != null) {
+                out.andNot(defsOfVar.get(defVars.get(def)));
+                out.set(def);
+            }
+            if (!out.equals(reachOut.get(node))) {
+                reachOut.put(node, out);
+                addSuccsOf(node, workList, inWorkList);
+            }
+        }
+    }
+
+    private void addSuccsOf(Stmt node, Deque<Stmt> workList, Set<Stmt> inWorkList) {
+        for (Stmt succ : cfg.getSuccsOf(node)) {
+            if (inWorkList.add(succ)) {
+                workList.add(succ);
+            }
+        }
+    }
+
+    /**
+     * Propagates values along def-use chains until reaching the fixed point.
+     *
+     * @return the number of definitions evaluated.
+     */
+    private int propagate() {
+        // build def-use chains: definition -> statements defining
+        // other definitions with its value
+        List<List<Integer>> users = new ArrayList<>(defVars.size());
+        for (int i = 0; i < defVars.size(); ++i) {
+            users.add(new ArrayList<>());
+        }
+        Map<Integer, List<Var>> usedVars = new HashMap<>();
+        defOf.forEach((stmt, def) -> {
+            BitSet in = reachIn.get(stmt);
+            List<Var> vars = new ArrayList<>();
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var var && defsOfVar.containsKey(var) &&
+                        !vars.contains(var)) {
+                    vars.add(var);
+                    BitSet reaching = (BitSet) defsOfVar.get(var).clone();
+                    reaching.and(in);
+                    reaching.stream().forEach(d -> users.get(d).add(def));
+                }
+            }
+            usedVars.put(def, vars);
+        });
+        // evaluate definitions until no value changes
+        Deque<Integer> workList = new ArrayDeque<>(defOf.values());
+        BitSet inWorkList = new BitSet();
+        workList.forEach(inWorkList::set);
+        CPFact operands = new CPFact();
+        int visits = 0;
+        while (!workList.isEmpty()) {
+            int def = workList.poll();
+            inWorkList.clear(def);
+            ++visits;
+            Stmt stmt = defStmts.get(def);
+            BitSet in = reachIn.get(stmt);
+            List<Var> vars = usedVars.get(def);
+            for (Var var : vars) {
+                operands.update(var, valueOf(var, in));
+            }
+            Value value = nonNull(ConstantPropagation.evaluate(
+                    ((DefinitionStmt<?, ?>) stmt).getRValue(), operands));
+            for (Var var : vars) {
+                operands.remove(var);
+            }
+            if (!value.equals(defValues.get(def))) {
+                defValues.set(def, value);
+                for (int user : users.get(def)) {
+                    if (!inWorkList.get(user)) {
+                        inWorkList.set(user);
+                        workList.add(user);
+                    }
+                }
+            }
+        }
+        return visits;
+    }
+
+    /**
+     * @return the value of given variable with given reaching definitions.
+     */
+    private Value valueOf(Var var, BitSet reachingDefs) {
+        Value value = Value.getUndef();
+        BitSet defs = defsOfVar.get(var);
+        for (int d = defs.nextSetBit(0); d >= 0; d = defs.nextSetBit(d + 1)) {
+            if (reachingDefs.get(d)) {
+                value = meet(value, defValues.get(d));
+            }
+        }
+        return value;
+    }
+
+    private DataflowResult<Stmt, CPFact> makeResult() {
+        DataflowResult<Stmt, CPFact> result = new DataflowResult<>();
+        for (Stmt node : cfg) {
+            result.setInFact(node, makeFact(reachIn.get(node)));
+            result.setOutFact(node, makeFact(reachOut.get(node)));
+        }
+        return result;
+    }
+
+    private CPFact makeFact(BitSet reachingDefs) {
+        CPFact fact = new CPFact();
+        for (int d = reachingDefs.nextSetBit(0); d >= 0;
+             d = reachingDefs.nextSetBit(d + 1)) {
+            Var var = defVars.get(d);
+            fact.update(var, meet(fact.get(var), defValues.get(d)));
+        }
+        return fact;
+    }
+
+    private Value meet(Value v1, Value v2) {
+        return nonNull(analysis.meetValue(v1, v2));
+    }
+
+    /**
+     * Treats null, e.g., returned by unfinished transfer functions,
+     * as UNDEF.
+     */
+    private static Value nonNull(Value value) {
+        return value != null ? value : Value.getUndef();
+    }
+}
@@ -33,6 +33,10 @@ import java.util.Set;
 /**
  * Base class for data-flow analysis solver, which provides common
  * functionalities for different solver implementations.
+ * <p>
+ * A solver is shared by all methods of its analysis, which are analyzed
+ * in parallel, so implementations must keep the per-CFG state of
+ * {@link #solve(CFG)} in local variables or in the returned result.
  *
  * @param <Node> type of CFG nodes
  * @param <Fact> type of data-flow facts
@@ -24,6 +24,8 @@ package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.util.AnalysisException;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Represents lattice values in constant propagation.
  * A value can be either UNDEF, a constant, or NAC.
@@ -51,6 +53,23 @@ public class Value {
         }
     }
 
+    /**
+     * Number of bits of the index of {@link #internCache}.
+     */
+    private static final int INTERN_BITS = 12;
+
+    /**
+     * Direct-mapped cache for interning constants outside the range of
+     * {@link #cache}. A slot is simply overwritten on collision, so the
+     * cache is bounded. Unsynchronized accesses to the slots are safe
+     * as all fields of Value are final.
+     */
+    private static final Value[] internCache = new Value[1 << INTERN_BITS];
+
+    private static final LongAdder internHits = new LongAdder();
+
+    private static final LongAdder internMisses = new LongAdder();
+
     private final Kind kind;
 
     private final int value;
@@ -82,7 +101,32 @@ public class Value {
         if (value >= -128 && value <= 127) { // will cache
             return cache[value + offset];
         }
-        return new Value(value);
+        int index = (value * 0x9E3779B9) >>> (Integer.SIZE - INTERN_BITS);
+        Value constant = internCache[index];
+        if (constant != null && constant.value == value) {
+            internHits.increment();
+            return constant;
+        }
+        internMisses.increment();
+        constant = new Value(value);
+        internCache[index] = constant;
+        return constant;
+    }
+
+    /**
+     * @return the number of constants outside [-128, 127] which were
+     * found in the intern cache.
+     */
+    public static long getInternHits() {
+        return internHits.sum();
+    }
+
+    /**
+     * @return the number of constants outside [-128, 127] which were
+     * not found in the intern cache.
+     */
+    public static long getInternMisses() {
+        return internMisses.sum();
     }
 
     /**
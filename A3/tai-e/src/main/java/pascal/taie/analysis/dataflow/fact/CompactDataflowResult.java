@@ -0,0 +1,288 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data-flow result which only stores the facts at the boundaries of
+ * basic blocks, i.e., the in-fact of the first node and the out-fact of
+ * the last node of each block. The facts of other nodes are recomputed
+ * on demand by replaying the transfer functions through the block.
+ * The facts of a replayed block are kept together, and the facts of
+ * the most recently queried blocks are kept in a small LRU cache, so
+ * that querying all nodes of a block replays it only once.
+ * <p>
+ * A basic block here is a maximal chain of nodes in which each node
+ * except the last has exactly one outgoing edge, and each node except
+ * the first has exactly one incoming edge. The entry and exit nodes
+ * form blocks on their own, so their facts are never replayed.
+ * <p>
+ * This result is read-only.
+ *
+ * @param <Node> type of nodes
+ * @param <Fact> type of data-flow facts
+ */
+public class CompactDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    /**
+     * Maximum number of blocks whose replayed facts are cached.
+     */
+    private static final int CACHE_SIZE = 16;
+
+    private final DataflowAnalysis<Node, Fact> analysis;
+
+    private final CFG<Node> cfg;
+
+    /**
+     * Basic block of each node.
+     */
+    private final Map<Node, Block<Node>> blocks = new HashMap<>();
+
+    /**
+     * Position of each node in its basic block.
+     */
+    private final Map<Node, Integer> positions = new HashMap<>();
+
+    /**
+     * In-facts of the first nodes of blocks.
+     */
+    private final Map<Node, Fact> headInFacts = new HashMap<>();
+
+    /**
+     * Out-facts of the last nodes of blocks.
+     */
+    private final Map<Node, Fact> tailOutFacts = new HashMap<>();
+
+    private final Map<Block<Node>, Replay<Fact>> cache = new LruCache<>();
+
+    /**
+     * Creates a compact copy of given (complete) result.
+     */
+    public CompactDataflowResult(DataflowAnalysis<Node, Fact> analysis,
+                                 CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        this.analysis = analysis;
+        this.cfg = cfg;
+        setNodeVisits(result.getNodeVisits());
+        for (Node node : cfg) {
+            if (!blocks.containsKey(node) && isHead(node)) {
+                addBlock(node, result);
+            }
+        }
+        // nodes on cycles of straight-line nodes have no head
+        for (Node node : cfg) {
+            if (!blocks.containsKey(node)) {
+                addBlock(node, result);
+            }
+        }
+    }
+
+    private void addBlock(Node head, DataflowResult<Node, Fact> result) {
+        List<Node> nodes = new ArrayList<>();
+        Block<Node> block = new Block<>(nodes);
+        for (Node n = head; n != null && !blocks.containsKey(n);
+             n = getSuccInBlock(n)) {
+            positions.put(n, nodes.size());
+            nodes.add(n);
+            blocks.put(n, block);
+        }
+        headInFacts.put(block.head(), result.getInFact(block.head()));
+        tailOutFacts.put(block.tail(), result.getOutFact(block.tail()));
+    }
+
+    /**
+     * @return true if given node is the first node of a basic block.
+     */
+    private boolean isHead(Node node) {
+        if (cfg.isExit(node) || cfg.getInEdgesOf(node).size() != 1) {
+            return true;
+        }
+        Node pred = cfg.getInEdgesOf(node).iterator().next().getSource();
+        return getSuccInBlock(pred) != node;
+    }
+
+    /**
+     * @return the node that follows given node in its basic block,
+     * or null if given node is the last node of the block.
+     */
+    private Node getSuccInBlock(Node node) {
+        if (cfg.isEntry(node) || cfg.getOutEdgesOf(node).size() != 1) {
+            return null;
+        }
+        Node succ = cfg.getOutEdgesOf(node).iterator().next().getTarget();
+        if (cfg.isExit(succ) || cfg.getInEdgesOf(succ).size() != 1) {
+            return null;
+        }
+        return succ;
+    }
+
+    @Override
+    public synchronized Fact getInFact(Node node) {
+        Block<Node> block = blocks.get(node);
+        if (block == null) {
+            return null;
+        }
+        if (node == block.head()) {
+            return headInFacts.get(node);
+        }
+        return getReplay(block).inFacts().get(positions.get(node));
+    }
+
+    @Override
+    public synchronized Fact getOutFact(Node node) {
+        Block<Node> block = blocks.get(node);
+        if (block == null) {
+            return null;
+        }
+        if (node == block.tail()) {
+            return tailOutFacts.get(node);
+        }
+        return getReplay(block).outFacts().get(positions.get(node));
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+
+    private Replay<Fact> getReplay(Block<Node> block) {
+        Replay<Fact> replay = cache.get(block);
+        if (replay == null) {
+            replay = replay(block);
+            cache.put(block, replay);
+        }
+        return replay;
+    }
+
+    /**
+     * Recomputes the facts of the nodes in given block
+     * from the stored boundary facts.
+     */
+    private Replay<Fact> replay(Block<Node> block) {
+        List<Node> nodes = block.nodes();
+        int n = nodes.size();
+        List<Fact> inFacts = new ArrayList<>(Collections.nCopies(n, null));
+        List<Fact> outFacts = new ArrayList<>(Collections.nCopies(n, null));
+        if (analysis.isForward()) {
+            Fact inFact = headInFacts.get(block.head());
+            for (int i = 0; i < n; ++i) {
+                Node node = nodes.get(i);
+                Fact outFact = analysis.newInitialFact();
+                analysis.transferNode(node, inFact, outFact);
+                inFacts.set(i, inFact);
+                outFacts.set(i, outFact);
+                if (i + 1 < n) {
+                    inFact = flow(node, outFact);
+                }
+            }
+        } else {
+            Fact outFact = tailOutFacts.get(block.tail());
+            for (int i = n - 1; i >= 0; --i) {
+                Node node = nodes.get(i);
+                Fact inFact = analysis.newInitialFact();
+                analysis.transferNode(node, inFact, outFact);
+                inFacts.set(i, inFact);
+                outFacts.set(i, outFact);
+                if (i > 0) {
+                    outFact = flow(nodes.get(i - 1), inFact);
+                }
+            }
+        }
+        return new Replay<>(inFacts, outFacts);
+    }
+
+    /**
+     * Flows given fact along the edge out of given node (within a block),
+     * in the way the solver meets facts of adjacent nodes.
+     */
+    private Fact flow(Node source, Fact fact) {
+        Edge<Node> edge = cfg.getOutEdgesOf(source).iterator().next();
+        if (analysis.needTransferEdge(edge)) {
+            fact = analysis.transferEdge(edge, fact);
+        }
+        Fact result = analysis.newInitialFact();
+        analysis.meetInto(fact, result);
+        return result;
+    }
+
+    /**
+     * Basic block. Blocks are compared by identity, as each node
+     * belongs to exactly one block.
+     */
+    private static final class Block<Node> {
+
+        private final List<Node> nodes;
+
+        private Block(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+        List<Node> nodes() {
+            return nodes;
+        }
+
+        Node head() {
+            return nodes.get(0);
+        }
+
+        Node tail() {
+            return nodes.get(nodes.size() - 1);
+        }
+    }
+
+    /**
+     * Facts of the nodes of a replayed block, in the order of the nodes.
+     */
+    private record Replay<Fact>(List<Fact> inFacts, List<Fact> outFacts) {
+    }
+
+    private static class LruCache<K, V> extends LinkedHashMap<K, V> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private LruCache() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    }
+}
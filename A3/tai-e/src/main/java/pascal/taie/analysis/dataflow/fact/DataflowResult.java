@@ -37,6 +37,11 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
 
     private final Map<Node, Fact> outFacts = new LinkedHashMap<>();
 
+    /**
+     * Number of node visits the solver took to reach the fixed point.
+     */
+    private int nodeVisits;
+
     /**
      * @return the flowing-in fact of given node.
      */
@@ -66,4 +71,16 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
     public void setOutFact(Node node, Fact fact) {
         outFacts.put(node, fact);
     }
+
+    /**
+     * @return the number of node visits the solver took to compute
+     * this result.
+     */
+    public int getNodeVisits() {
+        return nodeVisits;
+    }
+
+    public void setNodeVisits(int nodeVisits) {
+        this.nodeVisits = nodeVisits;
+    }
 }
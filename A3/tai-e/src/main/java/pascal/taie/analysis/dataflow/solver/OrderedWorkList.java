@@ -0,0 +1,155 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Work list of CFG nodes which always yields the pending node that comes
+ * first in a fixed order: reverse postorder of the CFG for forward
+ * analyses, and postorder for backward analyses. In these orders, a node
+ * is (apart from back edges) processed after all nodes whose facts flow
+ * into it, which reduces the number of times each node is revisited.
+ * <p>
+ * Pending nodes are kept as a bit set over their positions in the order,
+ * so adding a node that is already pending has no effect.
+ *
+ * @param <Node> type of CFG nodes
+ */
+class OrderedWorkList<Node> {
+
+    /**
+     * Nodes in the order of processing.
+     */
+    private final List<Node> nodes;
+
+    /**
+     * Position of each node in {@link #nodes}.
+     */
+    private final Map<Node, Integer> positions;
+
+    private final BitSet pending;
+
+    /**
+     * Number of nodes polled from this work list so far.
+     */
+    private int visits;
+
+    OrderedWorkList(CFG<Node> cfg, boolean forward) {
+        List<Node> postorder = postorder(cfg);
+        if (forward) {
+            Collections.reverse(postorder);
+        }
+        // nodes unreachable from entry are processed last
+        if (postorder.size() < cfg.getNumberOfNodes()) {
+            Set<Node> ordered = new HashSet<>(postorder);
+            for (Node node : cfg) {
+                if (!ordered.contains(node)) {
+                    postorder.add(node);
+                }
+            }
+        }
+        nodes = postorder;
+        positions = new HashMap<>(nodes.size() * 2);
+        for (int i = 0; i < nodes.size(); ++i) {
+            positions.put(nodes.get(i), i);
+        }
+        pending = new BitSet(nodes.size());
+    }
+
+    /**
+     * @return the nodes of given CFG which are reachable from the entry,
+     * in postorder of a depth-first traversal.
+     */
+    private static <Node> List<Node> postorder(CFG<Node> cfg) {
+        List<Node> postorder = new ArrayList<>(cfg.getNumberOfNodes());
+        Set<Node> visited = new HashSet<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        Deque<Iterator<Node>> succs = new ArrayDeque<>();
+        Node entry = cfg.getEntry();
+        visited.add(entry);
+        stack.push(entry);
+        succs.push(cfg.getSuccsOf(entry).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<Node> iter = succs.peek();
+            if (iter.hasNext()) {
+                Node succ = iter.next();
+                if (visited.add(succ)) {
+                    stack.push(succ);
+                    succs.push(cfg.getSuccsOf(succ).iterator());
+                }
+            } else {
+                postorder.add(stack.pop());
+                succs.pop();
+            }
+        }
+        return postorder;
+    }
+
+    /**
+     * Adds a node to this work list.
+     */
+    void add(Node node) {
+        pending.set(positions.get(node));
+    }
+
+    /**
+     * Adds all nodes of the CFG to this work list.
+     */
+    void addAll() {
+        pending.set(0, nodes.size());
+    }
+
+    boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Removes and returns the pending node that comes first in the order.
+     */
+    Node poll() {
+        int i = pending.nextSetBit(0);
+        pending.clear(i);
+        ++visits;
+        return nodes.get(i);
+    }
+
+    /**
+     * @return the number of nodes polled from this work list so far.
+     */
+    int getVisits() {
+        return visits;
+    }
+}
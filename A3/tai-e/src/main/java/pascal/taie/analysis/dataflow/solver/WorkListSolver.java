@@ -32,6 +32,20 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
         super(analysis);
     }
 
+    /**
+     * Creates the work list for solving given CFG. The work list initially
+     * contains no nodes; {@link #doSolveForward} and {@link #doSolveBackward}
+     * should add the nodes to be processed, poll them until it is empty,
+     * and finally record {@link OrderedWorkList#getVisits()} in
+     * the result via {@link DataflowResult#setNodeVisits(int)}.
+     *
+     * @return a new work list for given CFG, which yields nodes in reverse
+     * postorder for forward analysis, and in postorder for backward analysis.
+     */
+    protected OrderedWorkList<Node> newWorkList(CFG<Node> cfg) {
+        return new OrderedWorkList<>(cfg, analysis.isForward());
+    }
+
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
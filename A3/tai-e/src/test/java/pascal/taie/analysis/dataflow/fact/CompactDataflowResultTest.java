@@ -0,0 +1,214 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.analysis.graph.cfg.TestCFG;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class CompactDataflowResultTest {
+
+    @Test
+    public void testStraightLine() {
+        TestCFG cfg = new TestCFG(0, 4)
+                .edge(0, 1).edge(1, 2).edge(2, 3).edge(3, 4);
+        checkReplay(cfg);
+    }
+
+    @Test
+    public void testLoops() {
+        // a loop of straight-line nodes, a self loop and a branch
+        TestCFG cfg = new TestCFG(0, 8)
+                .edge(0, 1).edge(1, 2).edge(2, 3).edge(3, 1)
+                .edge(3, 4).edge(4, 4).edge(4, 5).edge(4, 6)
+                .edge(5, 7).edge(6, 7).edge(7, 8);
+        checkReplay(cfg);
+    }
+
+    @Test
+    public void testRandomCFGs() {
+        Random random = new Random(1);
+        for (int i = 0; i < 200; ++i) {
+            // more nodes than the blocks kept in the replay cache
+            int n = 3 + random.nextInt(120);
+            TestCFG cfg = new TestCFG(0, n - 1);
+            for (int node = 0; node < n - 1; ++node) {
+                cfg.edge(node, node + 1);
+            }
+            for (int k = random.nextInt(n / 3 + 1); k > 0; --k) {
+                cfg.edge(random.nextInt(n - 1), 1 + random.nextInt(n - 1));
+            }
+            checkReplay(cfg, random);
+        }
+    }
+
+    private static void checkReplay(CFG<Integer> cfg) {
+        checkReplay(cfg, new Random(1));
+    }
+
+    /**
+     * Checks that the compact result of given CFG has the same facts as
+     * the complete result, for both directions, queried in random order.
+     */
+    private static void checkReplay(CFG<Integer> cfg, Random random) {
+        for (boolean forward : new boolean[]{true, false}) {
+            TestAnalysis analysis = new TestAnalysis(forward);
+            DataflowResult<Integer, Set<Integer>> full = solve(analysis, cfg);
+            var compact = new CompactDataflowResult<>(analysis, cfg, full);
+            List<Integer> nodes = new ArrayList<>(cfg.getNodes());
+            // the second round queries cached blocks
+            for (int round = 0; round < 2; ++round) {
+                Collections.shuffle(nodes, random);
+                for (Integer node : nodes) {
+                    assertEquals("in-fact of " + node,
+                            full.getInFact(node), compact.getInFact(node));
+                    assertEquals("out-fact of " + node,
+                            full.getOutFact(node), compact.getOutFact(node));
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the complete result by round-robin iteration.
+     */
+    private static DataflowResult<Integer, Set<Integer>> solve(
+            TestAnalysis analysis, CFG<Integer> cfg) {
+        boolean forward = analysis.isForward();
+        DataflowResult<Integer, Set<Integer>> result = new DataflowResult<>();
+        for (Integer node : cfg) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+        Integer boundary = forward ? cfg.getEntry() : cfg.getExit();
+        if (forward) {
+            result.setOutFact(boundary, analysis.newBoundaryFact(cfg));
+        } else {
+            result.setInFact(boundary, analysis.newBoundaryFact(cfg));
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Integer node : cfg) {
+                if (node.equals(boundary)) {
+                    continue;
+                }
+                Set<Integer> fact = analysis.newInitialFact();
+                for (Edge<Integer> edge : forward ?
+                        cfg.getInEdgesOf(node) : cfg.getOutEdgesOf(node)) {
+                    Set<Integer> adjacent = forward ?
+                            result.getOutFact(edge.getSource()) :
+                            result.getInFact(edge.getTarget());
+                    if (analysis.needTransferEdge(edge)) {
+                        adjacent = analysis.transferEdge(edge, adjacent);
+                    }
+                    analysis.meetInto(adjacent, fact);
+                }
+                if (forward) {
+                    result.setInFact(node, fact);
+                    changed |= analysis.transferNode(
+                            node, fact, result.getOutFact(node));
+                } else {
+                    result.setOutFact(node, fact);
+                    changed |= analysis.transferNode(
+                            node, result.getInFact(node), fact);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Analysis whose facts record the nodes visited along paths.
+     * The transfer function of a node adds the node and removes its
+     * preceding node, so that facts change throughout straight-line
+     * code. Some edges also add facts.
+     */
+    private static class TestAnalysis implements DataflowAnalysis<Integer, Set<Integer>> {
+
+        private final boolean forward;
+
+        private TestAnalysis(boolean forward) {
+            this.forward = forward;
+        }
+
+        @Override
+        public boolean isForward() {
+            return forward;
+        }
+
+        @Override
+        public Set<Integer> newBoundaryFact(CFG<Integer> cfg) {
+            return new TreeSet<>(Set.of(-1));
+        }
+
+        @Override
+        public Set<Integer> newInitialFact() {
+            return new TreeSet<>();
+        }
+
+        @Override
+        public void meetInto(Set<Integer> fact, Set<Integer> target) {
+            target.addAll(fact);
+        }
+
+        @Override
+        public boolean transferNode(Integer node, Set<Integer> in, Set<Integer> out) {
+            Set<Integer> source = forward ? in : out;
+            Set<Integer> target = forward ? out : in;
+            Set<Integer> result = new TreeSet<>(source);
+            result.remove(node - 1);
+            result.add(node);
+            if (result.equals(target)) {
+                return false;
+            }
+            target.clear();
+            target.addAll(result);
+            return true;
+        }
+
+        @Override
+        public boolean needTransferEdge(Edge<Integer> edge) {
+            return edge.getSource() % 5 == 0;
+        }
+
+        @Override
+        public Set<Integer> transferEdge(Edge<Integer> edge, Set<Integer> nodeFact) {
+            Set<Integer> result = new TreeSet<>(nodeFact);
+            result.add(1000 + edge.getSource());
+            return result;
+        }
+    }
+}
@@ -23,10 +23,20 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.Var;
 
-import java.util.Collections;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Represents data facts of constant propagation, which maps variables
@@ -37,15 +47,41 @@ import java.util.Map;
  * it represents that the lattice value of the variable is UNDEF;
  * moreover, if we set the lattice value of a variable to UNDEF,
  * it effectively removes the variable from the CPFact.
+ * <p>
+ * The values are stored in an array indexed by {@link Var#getIndex()},
+ * where null represents absence. As indexes of variables are only unique
+ * within the IR of a method, all variables written to a fact must belong
+ * to the same method (checked by assertions), and variables of other
+ * methods are absent in the fact. Copies share the array until either
+ * of them is modified (copy-on-write), so facts that are copied but not
+ * changed, e.g., along straight-line code, are never duplicated.
  */
 public class CPFact extends MapFact<Var, Value> {
 
+    private static final Value[] EMPTY = {};
+
+    /**
+     * The IR which the variables in this fact belong to.
+     * It is known once any variable is added to this fact.
+     */
+    private IR ir;
+
+    private Value[] values;
+
+    /**
+     * Whether {@link #values} may be shared with other facts,
+     * in which case it must be copied before modification.
+     */
+    private boolean shared;
+
     public CPFact() {
-        this(Collections.emptyMap());
+        this(null, EMPTY, false);
     }
 
-    private CPFact(Map<Var, Value> map) {
-        super(map);
+    private CPFact(IR ir, Value[] values, boolean shared) {
+        this.ir = ir;
+        this.values = values;
+        this.shared = shared;
     }
 
     /**
@@ -54,7 +90,18 @@ public class CPFact extends MapFact<Var, Value> {
      */
     @Override
     public Value get(Var key) {
-        return map.getOrDefault(key, Value.getUndef());
+        Value value = find(key);
+        return value != null ? value : Value.getUndef();
+    }
+
+    /**
+     * @return the value of given variable in this fact,
+     * or null if the variable is absent in this fact.
+     */
+    private Value find(Var key) {
+        int i = key.getIndex();
+        return i < values.length && key.getMethod().getIR() == ir ?
+                values[i] : null;
     }
 
     @Override
@@ -64,13 +111,237 @@ public class CPFact extends MapFact<Var, Value> {
             // then we remove the variable from the CPFact
             // as we use absence to represent UNDEF.
             return remove(key) != null;
-        } else {
-            return super.update(key, value);
         }
+        assert ir == null || key.getMethod().getIR() == ir :
+                key + " does not belong to " + ir.getMethod();
+        int i = key.getIndex();
+        if (i < values.length && value.equals(values[i])) {
+            return false;
+        }
+        if (ir == null) {
+            ir = key.getMethod().getIR();
+        }
+        prepareWrite(i + 1);
+        values[i] = value;
+        return true;
+    }
+
+    @Override
+    public Value remove(Var key) {
+        Value old = find(key);
+        if (old == null) {
+            return null;
+        }
+        int i = key.getIndex();
+        prepareWrite(i + 1);
+        values[i] = null;
+        return old;
+    }
+
+    /**
+     * Makes {@link #values} writable by this fact and able to hold
+     * at least given number of variables.
+     */
+    private void prepareWrite(int capacity) {
+        if (values.length < capacity) {
+            values = Arrays.copyOf(values,
+                    Math.max(capacity, ir.getVars().size()));
+            shared = false;
+        } else if (shared) {
+            values = values.clone();
+            shared = false;
+        }
+    }
+
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        if (!(fact instanceof CPFact that)) {
+            return super.copyFrom(fact);
+        }
+        assert ir == null || that.ir == null || ir == that.ir :
+                "facts of different methods";
+        if (ir == null) {
+            // this fact has never been written, thus it is empty,
+            // and it can simply share the content of given fact
+            ir = that.ir;
+            if (that.values.length > 0) {
+                values = that.values;
+                shared = that.shared = true;
+            }
+            return !that.isEmpty();
+        }
+        boolean changed = false;
+        Value[] from = that.values;
+        for (int i = 0; i < from.length; ++i) {
+            Value value = from[i];
+            if (value != null && (i >= values.length || !value.equals(values[i]))) {
+                prepareWrite(i + 1);
+                values[i] = value;
+                changed = true;
+            }
+        }
+        return changed;
     }
 
     @Override
     public CPFact copy() {
-        return new CPFact(this.map);
+        if (values.length == 0) {
+            return new CPFact(ir, EMPTY, false);
+        }
+        shared = true;
+        return new CPFact(ir, values, true);
+    }
+
+    @Override
+    public void clear() {
+        if (shared) {
+            values = EMPTY;
+            shared = false;
+        } else {
+            Arrays.fill(values, null);
+        }
+    }
+
+    private boolean isEmpty() {
+        for (Value value : values) {
+            if (value != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Set<Var> keySet() {
+        return mappings().keySet();
+    }
+
+    @Override
+    public Stream<Map.Entry<Var, Value>> entries() {
+        return mappings().entrySet().stream();
+    }
+
+    @Override
+    public void forEach(BiConsumer<Var, Value> action) {
+        Value[] values = this.values;
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] != null) {
+                action.accept(ir.getVar(i), values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return a read-only map view of this fact. The view reflects the
+     * content of this fact at the time of its iteration.
+     */
+    @Override
+    protected Map<Var, Value> mappings() {
+        return new AbstractMap<>() {
+
+            @Override
+            public Value get(Object key) {
+                return key instanceof Var var ? find(var) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return key instanceof Var var && find(var) != null;
+            }
+
+            @Override
+            public Set<Map.Entry<Var, Value>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Map.Entry<Var, Value>> iterator() {
+                        return new EntryIterator(values);
+                    }
+
+                    @Override
+                    public int size() {
+                        int size = 0;
+                        for (Value value : values) {
+                            if (value != null) {
+                                ++size;
+                            }
+                        }
+                        return size;
+                    }
+                };
+            }
+        };
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<Var, Value>> {
+
+        private final Value[] values;
+
+        private int next;
+
+        private EntryIterator(Value[] values) {
+            this.values = values;
+            advance(0);
+        }
+
+        private void advance(int from) {
+            next = from;
+            while (next < values.length && values[next] == null) {
+                ++next;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        public Map.Entry<Var, Value> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Var, Value> entry = Map.entry(ir.getVar(next), values[next]);
+            advance(next + 1);
+            return entry;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CPFact that)) {
+            return false;
+        }
+        if (values == that.values) {
+            return true;
+        }
+        if (ir != that.ir && ir != null && that.ir != null) {
+            // facts of different methods are equal only if both are empty
+            return isEmpty() && that.isEmpty();
+        }
+        Value[] longer = values.length >= that.values.length ? values : that.values;
+        Value[] shorter = longer == values ? that.values : values;
+        for (int i = 0; i < longer.length; ++i) {
+            Value other = i < shorter.length ? shorter[i] : null;
+            if (longer[i] == null ? other != null : !longer[i].equals(other)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return mappings().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "{" + entries()
+                .sorted(Comparator.comparing(e -> e.getKey().toString()))
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(", ")) + "}";
     }
 }
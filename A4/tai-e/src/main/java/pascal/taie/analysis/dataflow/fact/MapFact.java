@@ -24,6 +24,7 @@ package pascal.taie.analysis.dataflow.fact;
 
 import pascal.taie.util.collection.Maps;
 
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Map;
 import java.util.Objects;
@@ -54,6 +55,15 @@ public class MapFact<K, V> {
         this.map = Maps.newHybridMap(map);
     }
 
+    /**
+     * Constructs a MapFact without a map of its own. This is for subclasses
+     * that store the mappings in other representations, which must then
+     * override all methods of this class that access {@link #map}.
+     */
+    protected MapFact() {
+        this.map = Collections.emptyMap();
+    }
+
     /**
      * @return the value to which the specified key is mapped,
      * or null if this map contains no mapping for the key.
@@ -88,7 +98,7 @@ public class MapFact<K, V> {
      */
     public boolean copyFrom(MapFact<K, V> fact) {
         boolean changed = false;
-        for (Map.Entry<K, V> entry : fact.map.entrySet()) {
+        for (Map.Entry<K, V> entry : fact.mappings().entrySet()) {
             changed |= update(entry.getKey(), entry.getValue());
         }
         return changed;
@@ -132,6 +142,14 @@ public class MapFact<K, V> {
         map.forEach(action);
     }
 
+    /**
+     * @return the mappings of this fact as a map. Subclasses that store
+     * mappings in other representations return a map view of them.
+     */
+    protected Map<K, V> mappings() {
+        return map;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -141,7 +159,7 @@ public class MapFact<K, V> {
             return false;
         }
         MapFact<?, ?> that = (MapFact<?, ?>) o;
-        return map.equals(that.map);
+        return map.equals(that.mappings());
     }
 
     @Override
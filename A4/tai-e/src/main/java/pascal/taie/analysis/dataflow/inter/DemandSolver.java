@@ -0,0 +1,154 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.util.collection.SetQueue;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Demand-driven solver for (forward) inter-procedural data-flow analysis.
+ * <p>
+ * To answer a query on a node, this solver only analyzes the region of
+ * the ICFG from which the node is reachable, i.e., the nodes found by
+ * exploring the ICFG backwards from the node, including the callees
+ * (through return edges) and the callers (through call edges).
+ * As the region is closed under predecessors, the facts of its nodes
+ * are the same as the ones of whole-program analysis.
+ * <p>
+ * The facts of all analyzed nodes are cached, and the exploration for
+ * subsequent queries stops at the analyzed nodes, so repeated queries
+ * in the same method are cheap.
+ */
+class DemandSolver<Method, Node, Fact> {
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final ICFG<Method, Node> icfg;
+
+    /**
+     * Entry nodes of the entry methods, whose out facts
+     * are the boundary facts.
+     */
+    private final Set<Node> boundaries = new HashSet<>();
+
+    /**
+     * Facts of the analyzed nodes.
+     */
+    private final DataflowResult<Node, Fact> result = new DataflowResult<>();
+
+    private final Set<Node> analyzed = new HashSet<>();
+
+    DemandSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                 ICFG<Method, Node> icfg) {
+        if (!analysis.isForward()) {
+            throw new UnsupportedOperationException(
+                    "DemandSolver only supports forward analysis");
+        }
+        this.analysis = analysis;
+        this.icfg = icfg;
+        icfg.entryMethods().forEach(method -> boundaries.add(icfg.getEntryOf(method)));
+    }
+
+    /**
+     * @return the number of nodes that have been analyzed.
+     */
+    int getAnalyzedNodeCount() {
+        return analyzed.size();
+    }
+
+    Fact getInFact(Node node) {
+        solve(node);
+        return result.getInFact(node);
+    }
+
+    Fact getOutFact(Node node) {
+        solve(node);
+        return result.getOutFact(node);
+    }
+
+    private void solve(Node node) {
+        if (analyzed.contains(node)) {
+            return;
+        }
+        Set<Node> region = collectRegion(node);
+        Queue<Node> workList = new SetQueue<>();
+        for (Node n : region) {
+            result.setInFact(n, analysis.newInitialFact());
+            result.setOutFact(n, boundaries.contains(n) ?
+                    analysis.newBoundaryFact(n) : analysis.newInitialFact());
+            if (!boundaries.contains(n)) {
+                workList.add(n);
+            }
+        }
+        while (!workList.isEmpty()) {
+            Node n = workList.poll();
+            Fact in = analysis.newInitialFact();
+            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(n)) {
+                analysis.meetInto(analysis.transferEdge(
+                        edge, result.getOutFact(edge.getSource())), in);
+            }
+            result.setInFact(n, in);
+            if (analysis.transferNode(n, in, result.getOutFact(n))) {
+                for (Node succ : icfg.getSuccsOf(n)) {
+                    if (region.contains(succ) && !boundaries.contains(succ)) {
+                        workList.add(succ);
+                    }
+                }
+            }
+        }
+        analyzed.addAll(region);
+    }
+
+    /**
+     * @return the nodes which have not been analyzed, and from which
+     * given node is reachable without passing through analyzed nodes.
+     */
+    private Set<Node> collectRegion(Node node) {
+        Set<Node> region = new LinkedHashSet<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        region.add(node);
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node n = stack.pop();
+            if (boundaries.contains(n)) {
+                continue;
+            }
+            for (Node pred : icfg.getPredsOf(n)) {
+                if (!analyzed.contains(pred) && region.add(pred)) {
+                    stack.push(pred);
+                }
+            }
+        }
+        return region;
+    }
+}
@@ -24,6 +24,7 @@ package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
@@ -53,6 +54,16 @@ public class InterConstantPropagation extends
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
     }
 
+    /**
+     * Answers whether given variable is constant at given statement,
+     * by analyzing only the part of the program relevant to the statement.
+     *
+     * @return the value of var in the IN fact of stmt.
+     */
+    public Value getValueOnDemand(Stmt stmt, Var var) {
+        return getInFactOnDemand(stmt).get(var);
+    }
+
     @Override
     public boolean isForward() {
         return cp.isForward();
@@ -23,11 +23,14 @@
 package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CompactICFG;
 import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
 import pascal.taie.util.collection.SetQueue;
 
 import java.util.Queue;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -41,6 +44,11 @@ class InterSolver<Method, Node, Fact> {
 
     private final ICFG<Method, Node> icfg;
 
+    /**
+     * The ICFG as a {@link CompactICFG} if it is, otherwise null.
+     */
+    private final CompactICFG<Method, Node> compactICFG;
+
     private DataflowResult<Node, Fact> result;
 
     private Queue<Node> workList;
@@ -49,6 +57,8 @@ class InterSolver<Method, Node, Fact> {
                 ICFG<Method, Node> icfg) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.compactICFG = icfg instanceof CompactICFG<Method, Node> compact ?
+                compact : null;
     }
 
     DataflowResult<Node, Fact> solve() {
@@ -65,4 +75,32 @@ class InterSolver<Method, Node, Fact> {
     private void doSolve() {
         // TODO - finish me
     }
+
+    /**
+     * Applies given action to the in edges of given node. On a
+     * {@link CompactICFG}, the edges are visited without allocating
+     * edge sets or iterators, thus the solvers should visit the edges
+     * through this method, with an action which is not created per node.
+     */
+    void forEachInEdge(Node node, Consumer<ICFGEdge<Node>> action) {
+        if (compactICFG != null) {
+            compactICFG.forEachInEdge(node, action);
+        } else {
+            icfg.getInEdgesOf(node).forEach(action);
+        }
+    }
+
+    /**
+     * Applies given action to the out edges of given node. On a
+     * {@link CompactICFG}, the edges are visited without allocating
+     * edge sets or iterators, thus the solvers should visit the edges
+     * through this method, with an action which is not created per node.
+     */
+    void forEachOutEdge(Node node, Consumer<ICFGEdge<Node>> action) {
+        if (compactICFG != null) {
+            compactICFG.forEachOutEdge(node, action);
+        } else {
+            icfg.getOutEdgesOf(node).forEach(action);
+        }
+    }
 }
@@ -0,0 +1,403 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.SimpleGraph;
+import pascal.taie.util.graph.TopoSorter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Parallel solver for (forward) inter-procedural data-flow analysis.
+ * <p>
+ * The call graph is condensed into strongly connected components, and
+ * the ICFG nodes are partitioned by the components of their methods.
+ * Each partition has its own work list and its own facts, which are only
+ * accessed by the thread that is currently analyzing the partition, so
+ * that independent partitions can be analyzed concurrently. When the out
+ * fact of a node changes, the facts flowing along its edges to other
+ * partitions (i.e., call and return edges) are computed by the owner of
+ * the node, and sent to the target partitions through concurrent queues.
+ * A partition is released (i.e., allowed to run) only after all its
+ * predecessors in the condensed call graph have gone quiet for the first
+ * time, so that the callees start from the facts of their callers instead
+ * of the initial facts. After that, a partition is scheduled whenever it
+ * receives facts, and the ready partitions are analyzed in topological
+ * order of the condensed call graph, i.e., callers are preferred over
+ * callees.
+ * <p>
+ * The solver computes the same result as {@link InterSolver}, provided
+ * that the transfer functions of the analysis can be invoked concurrently
+ * on the nodes of different methods.
+ */
+class ParallelInterSolver<Method, Node, Fact> extends InterSolver<Method, Node, Fact> {
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final int threads;
+
+    /**
+     * Entry nodes of the entry methods, whose out facts
+     * are the boundary facts.
+     */
+    private final Set<Node> boundaries = new HashSet<>();
+
+    private final Map<Node, Partition> owners = new HashMap<>();
+
+    private final List<Partition> partitions = new ArrayList<>();
+
+    /**
+     * Number of the partitions which are scheduled or being analyzed.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private final LongAdder messages = new LongAdder();
+
+    private ThreadPoolExecutor executor;
+
+    ParallelInterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                        ICFG<Method, Node> icfg, int threads) {
+        super(analysis, icfg);
+        if (!analysis.isForward()) {
+            throw new UnsupportedOperationException(
+                    "ParallelInterSolver only supports forward analysis");
+        }
+        this.analysis = analysis;
+        this.icfg = icfg;
+        this.threads = threads;
+    }
+
+    /**
+     * @return the number of partitions, i.e., the strongly connected
+     * components of the call graph.
+     */
+    int getPartitionCount() {
+        return partitions.size();
+    }
+
+    /**
+     * @return the number of facts that have been sent between partitions.
+     */
+    long getMessageCount() {
+        return messages.sum();
+    }
+
+    @Override
+    DataflowResult<Node, Fact> solve() {
+        icfg.entryMethods().forEach(method -> boundaries.add(icfg.getEntryOf(method)));
+        buildPartitions();
+        executor = new ThreadPoolExecutor(threads, threads,
+                0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>());
+        try {
+            // counts the scheduling itself as pending, so that the solver
+            // does not finish before all roots have been released
+            pending.incrementAndGet();
+            partitions.forEach(partition -> {
+                if (partition.waiting.get() == 0) {
+                    release(partition);
+                }
+            });
+            if (pending.decrementAndGet() == 0) {
+                done.complete(null);
+            }
+            done.join();
+        } finally {
+            executor.shutdownNow();
+        }
+        return makeResult();
+    }
+
+    /**
+     * Partitions the ICFG nodes by the strongly connected components
+     * of the call graph, and initializes the facts of the partitions.
+     */
+    private void buildPartitions() {
+        SimpleGraph<Method> callGraph = new SimpleGraph<>();
+        for (Node node : icfg) {
+            Method method = icfg.getContainingMethodOf(node);
+            callGraph.addNode(method);
+            if (icfg.isCallSite(node)) {
+                icfg.getCalleesOf(node).forEach(callee ->
+                        callGraph.addEdge(method, callee));
+            }
+        }
+        Map<Method, Partition> methodOwners = new HashMap<>();
+        MergedSCCGraph<Method> sccGraph = new MergedSCCGraph<>(callGraph);
+        List<MergedNode<Method>> sccs = new TopoSorter<>(sccGraph).get();
+        Map<MergedNode<Method>, Partition> sccOwners = new HashMap<>();
+        for (MergedNode<Method> scc : sccs) {
+            Partition partition = new Partition(partitions.size());
+            partitions.add(partition);
+            sccOwners.put(scc, partition);
+            scc.getNodes().forEach(method -> methodOwners.put(method, partition));
+        }
+        for (MergedNode<Method> scc : sccs) {
+            Partition partition = sccOwners.get(scc);
+            sccGraph.getSuccsOf(scc).forEach(succ -> {
+                Partition successor = sccOwners.get(succ);
+                partition.successors.add(successor);
+                successor.waiting.incrementAndGet();
+            });
+        }
+        for (Node node : icfg) {
+            Partition partition = methodOwners.get(icfg.getContainingMethodOf(node));
+            owners.put(node, partition);
+            partition.inFacts.put(node, analysis.newInitialFact());
+            if (boundaries.contains(node)) {
+                partition.outFacts.put(node, analysis.newBoundaryFact(node));
+            } else {
+                partition.outFacts.put(node, analysis.newInitialFact());
+                partition.workList.add(node);
+            }
+        }
+    }
+
+    /**
+     * Allows given partition to run, and schedules it.
+     */
+    private void release(Partition partition) {
+        partition.released = true;
+        schedule(partition);
+    }
+
+    /**
+     * Schedules given partition if it has been released. Otherwise,
+     * the facts in its inbox are received after it is released.
+     */
+    private void schedule(Partition partition) {
+        if (partition.released &&
+                partition.scheduled.compareAndSet(false, true)) {
+            pending.incrementAndGet();
+            executor.execute(partition);
+        }
+    }
+
+    private DataflowResult<Node, Fact> makeResult() {
+        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        for (Partition partition : partitions) {
+            partition.inFacts.forEach(result::setInFact);
+            partition.outFacts.forEach(result::setOutFact);
+        }
+        return result;
+    }
+
+    /**
+     * Nodes of the methods in a strongly connected component of
+     * the call graph, together with their facts.
+     */
+    private class Partition implements Runnable, Comparable<Partition> {
+
+        /**
+         * Index of the component in topological order.
+         */
+        private final int index;
+
+        private final Queue<Node> workList = new SetQueue<>();
+
+        private final Map<Node, Fact> inFacts = new HashMap<>();
+
+        private final Map<Node, Fact> outFacts = new HashMap<>();
+
+        /**
+         * Facts received from other partitions, each of which is the meet
+         * of the facts flowing along an edge into this partition.
+         */
+        private final Map<ICFGEdge<Node>, Fact> edgeFacts = new HashMap<>();
+
+        private final Set<Node> visited = new HashSet<>();
+
+        private final Queue<Pair<ICFGEdge<Node>, Fact>> inbox = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Whether this partition is scheduled or being analyzed.
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /**
+         * Partitions of the callees in other components.
+         */
+        private final List<Partition> successors = new ArrayList<>();
+
+        /**
+         * Number of the predecessors which have not gone quiet yet.
+         */
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        /**
+         * Whether this partition is allowed to run.
+         */
+        private volatile boolean released;
+
+        /**
+         * Whether this partition has gone quiet once, i.e., it has
+         * released its successors.
+         */
+        private boolean quiet;
+
+        /**
+         * Fact which is being computed or propagated by {@link #process}.
+         * It is kept in a field, so that the edge visitors below are
+         * created once per partition instead of once per node.
+         */
+        private Fact current;
+
+        private final Consumer<ICFGEdge<Node>> inEdgeVisitor = this::meetInEdge;
+
+        private final Consumer<ICFGEdge<Node>> outEdgeVisitor = this::propagateOutEdge;
+
+        private Partition(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            try {
+                do {
+                    receive();
+                    while (!workList.isEmpty()) {
+                        process(workList.poll());
+                    }
+                    if (!quiet) {
+                        quiet = true;
+                        successors.forEach(successor -> {
+                            if (successor.waiting.decrementAndGet() == 0) {
+                                release(successor);
+                            }
+                        });
+                    }
+                    // a fact sent after this point either is seen by the
+                    // check below, or schedules this partition again
+                    scheduled.set(false);
+                } while (!inbox.isEmpty() && scheduled.compareAndSet(false, true));
+                if (pending.decrementAndGet() == 0) {
+                    done.complete(null);
+                }
+            } catch (Throwable e) {
+                done.completeExceptionally(e);
+            }
+        }
+
+        private void receive() {
+            Pair<ICFGEdge<Node>, Fact> message;
+            while ((message = inbox.poll()) != null) {
+                ICFGEdge<Node> edge = message.first();
+                analysis.meetInto(message.second(), edgeFacts.computeIfAbsent(
+                        edge, __ -> analysis.newInitialFact()));
+                if (!boundaries.contains(edge.getTarget())) {
+                    workList.add(edge.getTarget());
+                }
+            }
+        }
+
+        private void process(Node node) {
+            Fact in = analysis.newInitialFact();
+            current = in;
+            forEachInEdge(node, inEdgeVisitor);
+            inFacts.put(node, in);
+            Fact out = outFacts.get(node);
+            // the facts along the edges to other partitions are always
+            // sent on the first visit, as they are not pulled by the targets
+            boolean changed = analysis.transferNode(node, in, out);
+            if (visited.add(node) || changed) {
+                current = out;
+                forEachOutEdge(node, outEdgeVisitor);
+            }
+            current = null;
+        }
+
+        /**
+         * Meets the fact flowing along given in edge into {@link #current}.
+         */
+        private void meetInEdge(ICFGEdge<Node> edge) {
+            Fact fact;
+            if (owners.get(edge.getSource()) == this) {
+                fact = analysis.transferEdge(edge, outFacts.get(edge.getSource()));
+            } else {
+                fact = edgeFacts.get(edge);
+            }
+            if (fact != null) {
+                analysis.meetInto(fact, current);
+            }
+        }
+
+        /**
+         * Propagates {@link #current}, i.e., the out fact of the source,
+         * along given out edge.
+         */
+        private void propagateOutEdge(ICFGEdge<Node> edge) {
+            Node target = edge.getTarget();
+            Partition owner = owners.get(target);
+            if (owner == this) {
+                if (!boundaries.contains(target)) {
+                    workList.add(target);
+                }
+            } else {
+                send(owner, edge, current);
+            }
+        }
+
+        /**
+         * Sends the fact flowing along given edge to given partition.
+         * The fact is copied, as the edge transfer function may return
+         * the out fact, which is modified later by this partition.
+         */
+        private void send(Partition owner, ICFGEdge<Node> edge, Fact out) {
+            Fact fact = analysis.newInitialFact();
+            analysis.meetInto(analysis.transferEdge(edge, out), fact);
+            owner.inbox.add(new Pair<>(edge, fact));
+            messages.increment();
+            schedule(owner);
+        }
+
+        @Override
+        public int compareTo(Partition other) {
+            return Integer.compare(index, other.index);
+        }
+    }
+}
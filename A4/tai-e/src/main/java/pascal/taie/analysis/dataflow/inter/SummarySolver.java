@@ -0,0 +1,391 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Summary-based solver for (forward) inter-procedural data-flow analysis,
+ * which follows the functional approach of Sharir and Pnueli.
+ * <p>
+ * Each method is analyzed separately for each distinct entry fact, i.e.,
+ * the fact produced by {@link AbstractInterDataflowAnalysis#transferCallEdge}
+ * (or the boundary fact for entry methods). The out fact of the exit node
+ * in such an analysis is the summary of the method for that entry fact.
+ * A call site whose entry fact has been seen before reuses the memoized
+ * summary, which is applied at the return sites through the
+ * {@link ReturnEdge}s, and met with the result of the
+ * {@link pascal.taie.analysis.graph.icfg.CallToReturnEdge}.
+ * <p>
+ * Each call site uses one summary of each callee. When the entry fact of
+ * a callee changes, the summary for the new entry fact replaces the old
+ * one at the call site. Summaries that are no longer reachable from the
+ * summaries of the entry methods through the callees of call sites are
+ * discarded, together with their facts. Unlike counting the call sites
+ * that use a summary, this also discards summaries of recursive methods
+ * which are only used by each other.
+ * <p>
+ * To guarantee termination for recursive methods whose entry facts keep
+ * changing, the number of summaries of each method is bounded. Further
+ * entry facts of a method are all met into one shared entry fact.
+ * <p>
+ * The facts of each node in the result are the meet of its facts over
+ * all summaries of its method, so the result is at least as precise as
+ * the one computed by {@link InterSolver}.
+ */
+class SummarySolver<Method, Node, Fact> extends InterSolver<Method, Node, Fact> {
+
+    private static final int MIN_SWEEP_THRESHOLD = 64;
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final ICFG<Method, Node> icfg;
+
+    /**
+     * Maximum number of summaries of each method.
+     */
+    private final int maxSummaries;
+
+    /**
+     * Summaries of each method, keyed by entry facts.
+     * The merged summary of a method (if any) is keyed by null.
+     */
+    private final Map<Method, Map<Fact, Summary>> summaries = new HashMap<>();
+
+    private final Queue<Pair<Summary, Node>> workList = new SetQueue<>();
+
+    /**
+     * Number of summaries replaced at call sites since the last sweep.
+     */
+    private int replaced;
+
+    /**
+     * Number of replaced summaries that triggers a sweep, which grows
+     * with the number of summaries so that sweeps take amortized
+     * constant time per replacement.
+     */
+    private int sweepThreshold = MIN_SWEEP_THRESHOLD;
+
+    private long hits;
+
+    private long misses;
+
+    SummarySolver(InterDataflowAnalysis<Node, Fact> analysis,
+                  ICFG<Method, Node> icfg, int maxSummaries) {
+        super(analysis, icfg);
+        if (!analysis.isForward()) {
+            throw new UnsupportedOperationException(
+                    "SummarySolver only supports forward analysis");
+        }
+        this.analysis = analysis;
+        this.icfg = icfg;
+        this.maxSummaries = maxSummaries;
+    }
+
+    /**
+     * @return the number of times that an existing summary was reused
+     * by a call site.
+     */
+    long getSummaryHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of times that a summary had to be
+     * computed or recomputed.
+     */
+    long getSummaryMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of summaries that are in use.
+     */
+    int getSummaryCount() {
+        return summaries.values().stream().mapToInt(Map::size).sum();
+    }
+
+    @Override
+    DataflowResult<Node, Fact> solve() {
+        icfg.entryMethods().forEach(method -> getSummary(method,
+                analysis.newBoundaryFact(icfg.getEntryOf(method)), null)
+                .isEntry = true);
+        while (!workList.isEmpty()) {
+            Pair<Summary, Node> item = workList.poll();
+            process(item.first(), item.second());
+        }
+        sweep();
+        return makeResult();
+    }
+
+    /**
+     * Obtains the summary of given method for given entry fact,
+     * and schedules the analysis of the method if the summary
+     * has not been computed.
+     *
+     * @param entryFact the entry fact, which is copied, as the summaries
+     *                  are keyed by their entry facts and given fact may
+     *                  be modified by the caller afterwards.
+     * @param current   the summary currently used for the method by the
+     *                  requesting call site (or null), which is not counted
+     *                  as a reuse if it is obtained again.
+     */
+    private Summary getSummary(Method method, Fact entryFact, Summary current) {
+        Fact copy = analysis.newInitialFact();
+        analysis.meetInto(entryFact, copy);
+        entryFact = copy;
+        Map<Fact, Summary> methodSummaries = summaries.computeIfAbsent(
+                method, __ -> new HashMap<>());
+        Summary summary = methodSummaries.get(entryFact);
+        if (summary != null) {
+            if (summary != current) {
+                ++hits;
+            }
+            return summary;
+        }
+        summary = methodSummaries.get(null);
+        if (summary != null) {
+            Fact merged = analysis.newInitialFact();
+            analysis.meetInto(summary.entryFact, merged);
+            analysis.meetInto(entryFact, merged);
+            if (merged.equals(summary.entryFact)) {
+                if (summary != current) {
+                    ++hits;
+                }
+            } else {
+                ++misses;
+                summary.entryFact = merged;
+                workList.add(new Pair<>(summary, icfg.getEntryOf(method)));
+            }
+            return summary;
+        }
+        ++misses;
+        summary = new Summary(method, entryFact);
+        summary.isMerged = methodSummaries.size() + 1 >= maxSummaries;
+        methodSummaries.put(summary.isMerged ? null : entryFact, summary);
+        workList.add(new Pair<>(summary, icfg.getEntryOf(method)));
+        return summary;
+    }
+
+    private void process(Summary summary, Node node) {
+        if (summary.isDiscarded) {
+            return;
+        }
+        Fact in = analysis.newInitialFact();
+        if (node.equals(icfg.getEntryOf(summary.method))) {
+            analysis.meetInto(summary.entryFact, in);
+        } else {
+            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                if (edge instanceof ReturnEdge<Node> returnEdge) {
+                    applySummaries(summary, returnEdge, in);
+                } else if (!(edge instanceof CallEdge)) {
+                    Fact out = summary.outFacts.get(edge.getSource());
+                    if (out != null) {
+                        analysis.meetInto(analysis.transferEdge(edge, out), in);
+                    }
+                }
+            }
+        }
+        summary.inFacts.put(node, in);
+        boolean visited = summary.outFacts.containsKey(node);
+        Fact out = summary.outFacts.computeIfAbsent(node,
+                __ -> analysis.newInitialFact());
+        boolean changed = analysis.transferNode(node, in, out) || !visited;
+        if (icfg.isCallSite(node)) {
+            processCallSite(summary, node, out);
+        }
+        if (changed) {
+            for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                if (!(edge instanceof CallEdge) && !(edge instanceof ReturnEdge)) {
+                    workList.add(new Pair<>(summary, edge.getTarget()));
+                }
+            }
+            if (node.equals(icfg.getExitOf(summary.method))) {
+                summary.callers.forEach(caller -> icfg.getReturnSitesOf(caller.second())
+                        .forEach(retSite -> workList.add(new Pair<>(caller.first(), retSite))));
+            }
+        }
+    }
+
+    /**
+     * Meets the summaries of the callees, which are applied through
+     * given return edge, into given in fact of the return site.
+     */
+    private void applySummaries(Summary summary, ReturnEdge<Node> returnEdge, Fact in) {
+        Node exit = returnEdge.getSource();
+        Summary calleeSummary = summary.getCallees(returnEdge.getCallSite())
+                .get(icfg.getContainingMethodOf(exit));
+        if (calleeSummary != null) {
+            Fact exitOut = calleeSummary.outFacts.get(exit);
+            if (exitOut != null) {
+                analysis.meetInto(analysis.transferEdge(returnEdge, exitOut), in);
+            }
+        }
+    }
+
+    private void processCallSite(Summary summary, Node callSite, Fact out) {
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+            if (edge instanceof CallEdge<Node> callEdge) {
+                Method callee = icfg.getContainingMethodOf(callEdge.getTarget());
+                Map<Method, Summary> callees = summary.getCallees(callSite);
+                Summary old = callees.get(callee);
+                Summary calleeSummary = getSummary(callee,
+                        analysis.transferEdge(callEdge, out), old);
+                if (calleeSummary != old) {
+                    callees.put(callee, calleeSummary);
+                    calleeSummary.callers.add(new Pair<>(summary, callSite));
+                    if (old != null) {
+                        old.callers.remove(new Pair<>(summary, callSite));
+                        if (++replaced >= sweepThreshold) {
+                            sweep();
+                        }
+                    }
+                    if (old != null || calleeSummary.outFacts
+                            .containsKey(icfg.getExitOf(callee))) {
+                        // the return sites drop the facts of the old summary,
+                        // or the new summary is already available
+                        icfg.getReturnSitesOf(callSite).forEach(retSite ->
+                                workList.add(new Pair<>(summary, retSite)));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards the summaries which are unreachable from the summaries
+     * of the entry methods through the callees of call sites.
+     */
+    private void sweep() {
+        Set<Summary> reachable = Sets.newSet();
+        Deque<Summary> stack = new ArrayDeque<>();
+        summaries.values().forEach(methodSummaries ->
+                methodSummaries.values().forEach(summary -> {
+                    if (summary.isEntry && reachable.add(summary)) {
+                        stack.push(summary);
+                    }
+                }));
+        while (!stack.isEmpty()) {
+            stack.pop().callees.values().forEach(callees ->
+                    callees.values().forEach(callee -> {
+                        if (reachable.add(callee)) {
+                            stack.push(callee);
+                        }
+                    }));
+        }
+        summaries.values().forEach(methodSummaries ->
+                methodSummaries.values().removeIf(summary -> {
+                    if (reachable.contains(summary)) {
+                        return false;
+                    }
+                    summary.isDiscarded = true;
+                    return true;
+                }));
+        reachable.forEach(summary ->
+                summary.callers.removeIf(caller -> caller.first().isDiscarded));
+        replaced = 0;
+        sweepThreshold = Math.max(MIN_SWEEP_THRESHOLD, reachable.size());
+    }
+
+    private DataflowResult<Node, Fact> makeResult() {
+        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        for (Node node : icfg) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+        summaries.values().forEach(methodSummaries ->
+                methodSummaries.values().forEach(summary -> {
+                    summary.inFacts.forEach((node, fact) ->
+                            analysis.meetInto(fact, result.getInFact(node)));
+                    summary.outFacts.forEach((node, fact) ->
+                            analysis.meetInto(fact, result.getOutFact(node)));
+                }));
+        return result;
+    }
+
+    /**
+     * Analysis of a method for an entry fact.
+     */
+    private class Summary {
+
+        private final Method method;
+
+        private Fact entryFact;
+
+        private final Map<Node, Fact> inFacts = new HashMap<>();
+
+        private final Map<Node, Fact> outFacts = new HashMap<>();
+
+        /**
+         * Summaries of the callees of each call site in this analysis.
+         */
+        private final Map<Node, Map<Method, Summary>> callees = new HashMap<>();
+
+        /**
+         * The analyses and call sites which use this summary.
+         */
+        private final Set<Pair<Summary, Node>> callers = new LinkedHashSet<>();
+
+        /**
+         * Whether this is the summary of an entry method for the boundary
+         * fact, which is used even without callers.
+         */
+        private boolean isEntry;
+
+        /**
+         * Whether this is the merged summary of its method.
+         */
+        private boolean isMerged;
+
+        /**
+         * Whether this summary has been discarded, as it is unreachable
+         * from the summaries of the entry methods.
+         */
+        private boolean isDiscarded;
+
+        private Summary(Method method, Fact entryFact) {
+            this.method = method;
+            this.entryFact = entryFact;
+        }
+
+        private Map<Method, Summary> getCallees(Node callSite) {
+            return callees.computeIfAbsent(callSite, __ -> new HashMap<>());
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.VoidType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CPFactTest {
+
+    private static final JClass CLASS = new JClass(null, "T");
+
+    /**
+     * Method with given number of variables, whose IR is built without
+     * the world.
+     */
+    private static class MockMethod extends JMethod {
+
+        private final IR ir;
+
+        private MockMethod(String name, int varCount) {
+            super(CLASS, name, Set.of(), List.of(), VoidType.VOID, List.of(),
+                    AnnotationHolder.emptyHolder(), null, null);
+            List<Var> vars = new ArrayList<>();
+            for (int i = 0; i < varCount; ++i) {
+                vars.add(new Var(this, name + "v" + i, null, i));
+            }
+            ir = new DefaultIR(this, null, List.of(), Set.of(), vars,
+                    List.of(), List.of());
+        }
+
+        @Override
+        public IR getIR() {
+            return ir;
+        }
+
+        private Var getVar(int i) {
+            return ir.getVar(i);
+        }
+    }
+
+    private final MockMethod m = new MockMethod("m", 4);
+
+    private final Var a = m.getVar(0);
+
+    private final Var b = m.getVar(1);
+
+    private final Var c = m.getVar(3);
+
+    private static Value constant(int i) {
+        return Value.makeConstant(i);
+    }
+
+    private CPFact fact(Object... pairs) {
+        CPFact fact = new CPFact();
+        for (int i = 0; i < pairs.length; i += 2) {
+            fact.update((Var) pairs[i], (Value) pairs[i + 1]);
+        }
+        return fact;
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        CPFact fact = new CPFact();
+        assertTrue(fact.get(a).isUndef());
+        assertTrue(fact.update(a, constant(1)));
+        assertFalse(fact.update(a, constant(1)));
+        assertTrue(fact.update(c, Value.getNAC()));
+        assertEquals(constant(1), fact.get(a));
+        assertEquals(Set.of(a, c), fact.keySet());
+        // setting UNDEF removes the variable
+        assertTrue(fact.update(a, Value.getUndef()));
+        assertFalse(fact.update(a, Value.getUndef()));
+        assertEquals(Set.of(c), fact.keySet());
+        assertEquals(Value.getNAC(), fact.remove(c));
+        assertNull(fact.remove(c));
+        assertEquals(new CPFact(), fact);
+    }
+
+    @Test
+    public void testCopyOnWrite() {
+        CPFact fact = fact(a, constant(1), b, constant(2));
+        CPFact copy = fact.copy();
+        CPFact copyOfCopy = copy.copy();
+        assertEquals(fact, copy);
+        copy.update(a, constant(3));
+        copy.remove(b);
+        assertEquals(fact(a, constant(1), b, constant(2)), fact);
+        assertEquals(fact(a, constant(3)), copy);
+        assertEquals(fact(a, constant(1), b, constant(2)), copyOfCopy);
+        fact.update(c, Value.getNAC());
+        assertEquals(fact(a, constant(3)), copy);
+        assertEquals(fact(a, constant(1), b, constant(2)), copyOfCopy);
+        assertEquals(fact(a, constant(1), b, constant(2), c, Value.getNAC()), fact);
+    }
+
+    @Test
+    public void testCopyFromIntoEmptyFact() {
+        CPFact fact = fact(a, constant(1), c, Value.getNAC());
+        CPFact target = new CPFact();
+        assertTrue(target.copyFrom(fact));
+        assertEquals(fact, target);
+        assertFalse(target.copyFrom(fact));
+        // the two facts share the array, which must be copied on write
+        target.update(b, constant(2));
+        fact.remove(a);
+        assertEquals(fact(c, Value.getNAC()), fact);
+        assertEquals(fact(a, constant(1), b, constant(2), c, Value.getNAC()), target);
+        // copying an empty fact into an empty fact changes nothing
+        assertFalse(new CPFact().copyFrom(new CPFact()));
+        // copying from a generic map fact
+        MapFact<Var, Value> mapFact = new MapFact<>(Map.of(b, constant(5)));
+        CPFact other = new CPFact();
+        assertTrue(other.copyFrom(mapFact));
+        assertEquals(fact(b, constant(5)), other);
+    }
+
+    @Test
+    public void testClearSharedArray() {
+        CPFact fact = fact(a, constant(1), b, constant(2));
+        CPFact copy = fact.copy();
+        fact.clear();
+        assertEquals(new CPFact(), fact);
+        assertEquals(fact(a, constant(1), b, constant(2)), copy);
+        fact.update(c, constant(3));
+        assertEquals(fact(c, constant(3)), fact);
+        assertEquals(fact(a, constant(1), b, constant(2)), copy);
+        CPFact copy2 = copy.copy();
+        copy2.clear();
+        assertEquals(fact(a, constant(1), b, constant(2)), copy);
+    }
+
+    @Test
+    public void testDifferentIRs() {
+        MockMethod other = new MockMethod("other", 4);
+        Var otherA = other.getVar(0);
+        CPFact fact = fact(a, constant(1));
+        CPFact otherFact = fact(otherA, constant(1));
+        // same indexes and values, but variables of different methods
+        assertNotEquals(fact, otherFact);
+        assertNotEquals(otherFact, fact);
+        assertTrue(fact.get(otherA).isUndef());
+        assertNull(fact.remove(otherA));
+        assertFalse(fact.keySet().contains(otherA));
+        assertTrue(fact.keySet().contains(a));
+        assertEquals(fact(a, constant(1)), fact);
+        // empty facts are equal regardless of their IRs
+        fact.remove(a);
+        otherFact.remove(otherA);
+        assertEquals(fact, otherFact);
+        assertEquals(fact.hashCode(), otherFact.hashCode());
+        assertEquals(new CPFact(), fact);
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        CPFact f1 = fact(a, constant(1), c, Value.getNAC());
+        CPFact f2 = fact(c, Value.getNAC(), a, constant(1));
+        assertEquals(f1, f2);
+        assertEquals(f1.hashCode(), f2.hashCode());
+        // facts with arrays of different lengths
+        CPFact f3 = fact(a, constant(1));
+        CPFact f4 = f1.copy();
+        f4.remove(c);
+        assertEquals(f3, f4);
+        assertEquals(f3.hashCode(), f4.hashCode());
+        assertNotEquals(f1, f3);
+    }
+}
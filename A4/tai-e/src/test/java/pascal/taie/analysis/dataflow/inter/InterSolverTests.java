@@ -0,0 +1,228 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.analysis.graph.icfg.TestICFG;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Random inter-procedural problems for testing the solvers.
+ */
+final class InterSolverTests {
+
+    private InterSolverTests() {
+    }
+
+    /**
+     * Makes an ICFG of at most six methods, whose call sites may call
+     * any method except the entry method, including the caller itself.
+     */
+    static TestICFG makeRandomICFG(Random random) {
+        TestICFG icfg = new TestICFG();
+        int nMethods = 1 + random.nextInt(6);
+        for (int m = 0; m < nMethods; ++m) {
+            icfg.addMethod(2 + random.nextInt(8));
+        }
+        for (int m = 0; m < nMethods; ++m) {
+            int entry = icfg.getEntryOf(m);
+            int exit = icfg.getExitOf(m);
+            for (int node = entry; node < exit; ++node) {
+                if (nMethods > 1 && node > entry && random.nextInt(3) == 0) {
+                    icfg.call(node, node + 1, 1 + random.nextInt(nMethods - 1));
+                } else {
+                    icfg.normal(node, node + 1);
+                }
+            }
+            if (exit - entry > 2 && random.nextBoolean()) {
+                // a jump, which forms a loop if it goes backward
+                int source = entry + 1 + random.nextInt(exit - entry - 1);
+                int target = entry + 1 + random.nextInt(exit - entry - 1);
+                if (!icfg.isCallSite(source)) {
+                    icfg.normal(source, target);
+                }
+            }
+        }
+        return icfg;
+    }
+
+    /**
+     * @return the nodes of the methods reachable from the entry method.
+     */
+    static Set<Integer> getReachableNodes(TestICFG icfg) {
+        Set<Integer> methods = Sets.newSet();
+        Deque<Integer> workList = new ArrayDeque<>();
+        icfg.entryMethods().forEach(m -> {
+            methods.add(m);
+            workList.add(m);
+        });
+        while (!workList.isEmpty()) {
+            int method = workList.poll();
+            for (int node = icfg.getEntryOf(method);
+                 node <= icfg.getExitOf(method); ++node) {
+                for (int callee : icfg.getCalleesOf(node)) {
+                    if (methods.add(callee)) {
+                        workList.add(callee);
+                    }
+                }
+            }
+        }
+        Set<Integer> nodes = new TreeSet<>();
+        for (Integer node : icfg) {
+            if (methods.contains(icfg.getContainingMethodOf(node))) {
+                nodes.add(node);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Computes the global fixed point of given analysis on the reachable
+     * nodes of given ICFG by round-robin iteration, which treats all
+     * edges alike, i.e., it is insensitive to calling contexts.
+     */
+    static <Fact> DataflowResult<Integer, Fact> solveGlobally(
+            InterDataflowAnalysis<Integer, Fact> analysis, TestICFG icfg) {
+        return solveGlobally(analysis, icfg, getReachableNodes(icfg));
+    }
+
+    /**
+     * Computes the global fixed point of given analysis on given nodes
+     * of given ICFG, ignoring the edges from other nodes.
+     */
+    static <Fact> DataflowResult<Integer, Fact> solveGlobally(
+            InterDataflowAnalysis<Integer, Fact> analysis, TestICFG icfg,
+            Set<Integer> nodes) {
+        DataflowResult<Integer, Fact> result = new DataflowResult<>();
+        for (Integer node : nodes) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+        int entry = icfg.getEntryOf(0);
+        result.setInFact(entry, analysis.newBoundaryFact(entry));
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Integer node : nodes) {
+                Fact in;
+                if (node == entry) {
+                    in = result.getInFact(node);
+                } else {
+                    in = analysis.newInitialFact();
+                    for (ICFGEdge<Integer> edge : icfg.getInEdgesOf(node)) {
+                        if (nodes.contains(edge.getSource())) {
+                            analysis.meetInto(analysis.transferEdge(edge,
+                                    result.getOutFact(edge.getSource())), in);
+                        }
+                    }
+                    result.setInFact(node, in);
+                }
+                changed |= analysis.transferNode(node, in, result.getOutFact(node));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Forward analysis of string facts. Nodes generate and kill facts
+     * depending on their numbers, call edges filter facts and add facts
+     * depending on the call sites, and return edges remove the facts
+     * added by call edges, so that different call sites yield different
+     * entry facts of their callees. The transfer function of node 0,
+     * i.e., the entry of the entry method, is the identity, so that
+     * solvers agree on the out fact of the entry whether they transfer
+     * the boundary fact or not.
+     */
+    static class TestAnalysis implements InterDataflowAnalysis<Integer, Set<String>> {
+
+        @Override
+        public boolean isForward() {
+            return true;
+        }
+
+        @Override
+        public Set<String> newBoundaryFact(Integer boundary) {
+            return new TreeSet<>(Set.of("b"));
+        }
+
+        @Override
+        public Set<String> newInitialFact() {
+            return new TreeSet<>();
+        }
+
+        @Override
+        public void meetInto(Set<String> fact, Set<String> target) {
+            target.addAll(fact);
+        }
+
+        @Override
+        public boolean transferNode(Integer node, Set<String> in, Set<String> out) {
+            Set<String> result = new TreeSet<>(in);
+            if (node % 4 == 1) {
+                result.clear();
+            }
+            if (node % 3 == 2) {
+                result.add("g" + node);
+            }
+            result.remove("g" + (node - 5));
+            if (result.equals(out)) {
+                return false;
+            }
+            out.clear();
+            out.addAll(result);
+            return true;
+        }
+
+        @Override
+        public Set<String> transferEdge(ICFGEdge<Integer> edge, Set<String> out) {
+            Set<String> result = new TreeSet<>();
+            if (edge instanceof CallEdge) {
+                for (String fact : out) {
+                    if (fact.hashCode() % 2 == 0 || fact.equals("b")) {
+                        result.add(fact);
+                    }
+                }
+                result.add("c" + edge.getSource() % 3);
+            } else if (edge instanceof ReturnEdge) {
+                for (String fact : out) {
+                    if (!fact.startsWith("c")) {
+                        result.add(fact);
+                    }
+                }
+            } else {
+                result.addAll(out);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.TestICFG;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SummarySolverTest {
+
+    /**
+     * With one summary per method, all entry facts of a method are met,
+     * thus the result is the global fixed point.
+     */
+    @Test
+    public void testOneSummaryIsGlobalFixedPoint() {
+        Random random = new Random(1);
+        for (int i = 0; i < 300; ++i) {
+            TestICFG icfg = InterSolverTests.makeRandomICFG(random);
+            var analysis = new InterSolverTests.TestAnalysis();
+            var expected = InterSolverTests.solveGlobally(analysis, icfg);
+            var result = new SummarySolver<>(analysis, icfg, 1).solve();
+            for (int node : InterSolverTests.getReachableNodes(icfg)) {
+                assertEquals("in-fact of " + node,
+                        expected.getInFact(node), result.getInFact(node));
+                assertEquals("out-fact of " + node,
+                        expected.getOutFact(node), result.getOutFact(node));
+            }
+        }
+    }
+
+    /**
+     * With more summaries, the result is at least as precise as
+     * the global fixed point.
+     */
+    @Test
+    public void testSummariesAreAtLeastAsPrecise() {
+        Random random = new Random(2);
+        for (int i = 0; i < 300; ++i) {
+            TestICFG icfg = InterSolverTests.makeRandomICFG(random);
+            var analysis = new InterSolverTests.TestAnalysis();
+            var expected = InterSolverTests.solveGlobally(analysis, icfg);
+            for (int maxSummaries : new int[]{2, 4, 100}) {
+                var result = new SummarySolver<>(analysis, icfg, maxSummaries).solve();
+                for (int node : InterSolverTests.getReachableNodes(icfg)) {
+                    assertTrue("out-fact of " + node, expected.getOutFact(node)
+                            .containsAll(result.getOutFact(node)));
+                }
+                assertEquals(Set.of("b"), result.getOutFact(icfg.getEntryOf(0)));
+            }
+        }
+    }
+
+    /**
+     * Entry facts must be copied, as the analysis may modify the facts
+     * that it returned before.
+     */
+    @Test
+    public void testEntryFactsAreCopied() {
+        Random random = new Random(3);
+        for (int i = 0; i < 100; ++i) {
+            TestICFG icfg = InterSolverTests.makeRandomICFG(random);
+            var analysis = new InterSolverTests.TestAnalysis();
+            // returns the same object for all call edges
+            var reusing = new InterSolverTests.TestAnalysis() {
+
+                private final Set<String> callFact = new TreeSet<>();
+
+                @Override
+                public Set<String> transferEdge(ICFGEdge<Integer> edge, Set<String> out) {
+                    Set<String> result = super.transferEdge(edge, out);
+                    if (edge instanceof CallEdge) {
+                        callFact.clear();
+                        callFact.addAll(result);
+                        return callFact;
+                    }
+                    return result;
+                }
+            };
+            for (int maxSummaries : new int[]{1, 100}) {
+                var expected = new SummarySolver<>(analysis, icfg, maxSummaries).solve();
+                var result = new SummarySolver<>(reusing, icfg, maxSummaries).solve();
+                for (int node : InterSolverTests.getReachableNodes(icfg)) {
+                    assertEquals("out-fact of " + node,
+                            expected.getOutFact(node), result.getOutFact(node));
+                }
+            }
+        }
+    }
+
+    /**
+     * The summaries of a recursive method, which are only used by
+     * themselves after their callers switched to other summaries,
+     * must be discarded.
+     */
+    @Test
+    public void testDiscardRecursiveSummaries() {
+        TestICFG icfg = new TestICFG();
+        // main: 0 -> 1 -> 2 (call f) -> 3 -> 1 (loop), 3 -> 4 (exit)
+        int main = icfg.addMethod(5);
+        // f: 5 -> 6 (call f) -> 7 -> 8 (exit)
+        int f = icfg.addMethod(4);
+        icfg.normal(0, 1).normal(1, 2).call(2, 3, f).normal(3, 1).normal(3, 4);
+        icfg.normal(5, 6).call(6, 7, f).normal(7, 8);
+        // node 3 generates a fact which reaches the call site in the next
+        // iteration of the loop, so the entry fact of f changes
+        var analysis = new InterSolverTests.TestAnalysis() {
+            @Override
+            public boolean transferNode(Integer node, Set<String> in, Set<String> out) {
+                Set<String> result = new TreeSet<>(in);
+                if (node == 3) {
+                    result.add("x");
+                }
+                boolean changed = !result.equals(out);
+                out.clear();
+                out.addAll(result);
+                return changed;
+            }
+
+            @Override
+            public Set<String> transferEdge(ICFGEdge<Integer> edge, Set<String> out) {
+                return new TreeSet<>(out);
+            }
+        };
+        SummarySolver<Integer, Integer, Set<String>> solver =
+                new SummarySolver<>(analysis, icfg, 100);
+        DataflowResult<Integer, Set<String>> result = solver.solve();
+        // one summary of main and one summary of f for {b, x}
+        assertEquals(2, solver.getSummaryCount());
+        assertEquals(Set.of("b", "x"), result.getInFact(icfg.getEntryOf(f)));
+        assertEquals(Set.of("b", "x"), result.getOutFact(icfg.getExitOf(main)));
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.junit.Test;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class CompactICFGTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
+
+    void test(String main) {
+        ICFG<JMethod, Stmt> expected = ICFGTests.buildICFG(
+                main, CLASS_PATH, "-a", "cg=algorithm:cha");
+        CompactICFG<JMethod, Stmt> compact = new CompactICFG<>(expected);
+        ICFGTests.assertSameICFG(expected, compact);
+        assertVisitorsConsistent(compact);
+        ICFGTests.assertSameICFG(expected,
+                new CompactICFG<>(new LazyICFG(ICFGTests.getCallGraph())));
+    }
+
+    @Test
+    public void testExample() {
+        test("Example");
+    }
+
+    @Test
+    public void testReference() {
+        test("Reference");
+    }
+
+    @Test
+    public void testFibonacci() {
+        test("Fibonacci");
+    }
+
+    @Test
+    public void testMultiIntArgs() {
+        test("MultiIntArgs");
+    }
+
+    /**
+     * Compares with an ICFG which has recursive calls, a call site
+     * of two callees, a loop and a method which is not called.
+     */
+    @Test
+    public void testTestICFG() {
+        TestICFG icfg = new TestICFG();
+        icfg.addMethod(5);
+        icfg.addMethod(4);
+        icfg.addMethod(3);
+        icfg.addMethod(2);
+        icfg.normal(0, 1).call(1, 2, 1).call(1, 2, 2).normal(2, 3)
+                .normal(3, 1).normal(3, 4);
+        icfg.normal(5, 6).call(6, 7, 1).normal(7, 8);
+        icfg.normal(9, 10).normal(10, 11);
+        icfg.call(12, 13, 2);
+        CompactICFG<Integer, Integer> compact = new CompactICFG<>(icfg);
+        ICFGTests.assertSameICFG(icfg, compact);
+        assertVisitorsConsistent(compact);
+        assertEquals(icfg.getNodes().stream()
+                        .mapToInt(node -> icfg.getOutEdgesOf(node).size())
+                        .sum(),
+                compact.getNumberOfEdges());
+    }
+
+    /**
+     * Asserts that the visitor APIs on node numbers visit
+     * the same edges as the edge sets.
+     */
+    private static <Method, Node> void assertVisitorsConsistent(
+            CompactICFG<Method, Node> icfg) {
+        for (int id = 0; id < icfg.getNumberOfNodes(); ++id) {
+            Node node = icfg.getNode(id);
+            assertEquals(id, icfg.getId(node));
+            Set<ICFGEdge<Node>> outEdges = new HashSet<>();
+            int source = id;
+            icfg.forEachOutEdge(id, (e, target, kind) -> {
+                ICFGEdge<Node> edge = icfg.getEdge(e);
+                outEdges.add(edge);
+                assertEquals(source, icfg.getSource(e));
+                assertEquals(target, icfg.getTarget(e));
+                assertEquals(icfg.getId(edge.getTarget()), target);
+                assertEquals(kindOf(edge), kind);
+                assertEquals(kind, icfg.getKind(e));
+            });
+            assertEquals(new HashSet<>(icfg.getOutEdgesOf(node)), outEdges);
+            Set<ICFGEdge<Node>> inEdges = new HashSet<>();
+            int target = id;
+            icfg.forEachInEdge(id, (e, src, kind) -> {
+                ICFGEdge<Node> edge = icfg.getEdge(e);
+                inEdges.add(edge);
+                assertEquals(target, icfg.getTarget(e));
+                assertEquals(src, icfg.getSource(e));
+                assertEquals(icfg.getId(edge.getSource()), src);
+                assertEquals(kindOf(edge), kind);
+            });
+            assertEquals(new HashSet<>(icfg.getInEdgesOf(node)), inEdges);
+            Set<ICFGEdge<Node>> visited = new HashSet<>();
+            icfg.forEachOutEdge(node, visited::add);
+            assertEquals(outEdges, visited);
+            visited.clear();
+            icfg.forEachInEdge(node, visited::add);
+            assertEquals(inEdges, visited);
+        }
+    }
+
+    private static byte kindOf(ICFGEdge<?> edge) {
+        if (edge instanceof NormalEdge) {
+            return CompactICFG.NORMAL;
+        } else if (edge instanceof CallToReturnEdge) {
+            return CompactICFG.CALL_TO_RETURN;
+        } else if (edge instanceof CallEdge) {
+            return CompactICFG.CALL;
+        } else {
+            return CompactICFG.RETURN;
+        }
+    }
+}
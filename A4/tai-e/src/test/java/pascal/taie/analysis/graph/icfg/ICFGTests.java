@@ -0,0 +1,161 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.icfg;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Static utility methods for building and comparing ICFGs in tests.
+ */
+final class ICFGTests {
+
+    private ICFGTests() {
+    }
+
+    /**
+     * Builds the call graph and the ICFG of a test program.
+     *
+     * @param main      the main class to be analyzed
+     * @param classPath where the main class is located
+     * @param opts      options which set up the call graph builder
+     * @return the ICFG built by {@link ICFGBuilder}.
+     */
+    static ICFG<JMethod, Stmt> buildICFG(String main, String classPath, String... opts) {
+        List<String> args = new ArrayList<>();
+        args.add("-pp");
+        Collections.addAll(args, "-cp", classPath);
+        Collections.addAll(args, "-m", main);
+        Collections.addAll(args, opts);
+        Collections.addAll(args, "-a", ICFGBuilder.ID);
+        Main.main(args.toArray(new String[0]));
+        return World.get().getResult(ICFGBuilder.ID);
+    }
+
+    /**
+     * @return the call graph of the program analyzed by {@link #buildICFG}.
+     */
+    static CallGraph<Stmt, JMethod> getCallGraph() {
+        return World.get().getResult(CallGraphBuilder.ID);
+    }
+
+    /**
+     * Asserts that given ICFG has the same nodes, edges, calls and
+     * methods as the expected ICFG. The queries on the whole graph
+     * are issued after the ones on single nodes, so that an ICFG which
+     * is built on demand is also checked before it is complete.
+     */
+    static <Method, Node> void assertSameICFG(ICFG<Method, Node> expected,
+                                              ICFG<Method, Node> actual) {
+        assertEquals(expected.entryMethods().toList(),
+                actual.entryMethods().toList());
+        for (Node node : expected) {
+            String message = node + " in " + expected.getContainingMethodOf(node);
+            assertTrue(message, actual.hasNode(node));
+            assertEquals(message, expected.getContainingMethodOf(node),
+                    actual.getContainingMethodOf(node));
+            assertEquals(message, expected.isCallSite(node), actual.isCallSite(node));
+            assertEquals(message, toKeys(expected.getInEdgesOf(node)),
+                    toKeys(actual.getInEdgesOf(node)));
+            assertEquals(message, toKeys(expected.getOutEdgesOf(node)),
+                    toKeys(actual.getOutEdgesOf(node)));
+            assertEquals(message, copy(expected.getPredsOf(node)),
+                    copy(actual.getPredsOf(node)));
+            assertEquals(message, copy(expected.getSuccsOf(node)),
+                    copy(actual.getSuccsOf(node)));
+            for (Node succ : expected.getSuccsOf(node)) {
+                assertTrue(message, actual.hasEdge(node, succ));
+            }
+            if (expected.isCallSite(node)) {
+                assertEquals(message, copy(expected.getCalleesOf(node)),
+                        copy(actual.getCalleesOf(node)));
+                assertEquals(message, copy(expected.getReturnSitesOf(node)),
+                        copy(actual.getReturnSitesOf(node)));
+            }
+        }
+        Set<Method> methods = expected.getNodes()
+                .stream()
+                .map(expected::getContainingMethodOf)
+                .collect(Collectors.toSet());
+        for (Method method : methods) {
+            assertEquals(method.toString(), expected.getEntryOf(method),
+                    actual.getEntryOf(method));
+            assertEquals(method.toString(), expected.getExitOf(method),
+                    actual.getExitOf(method));
+            assertEquals(method.toString(), copy(expected.getCallersOf(method)),
+                    copy(actual.getCallersOf(method)));
+        }
+        assertEquals(copy(expected.getNodes()), copy(actual.getNodes()));
+        assertEquals(expected.getNumberOfNodes(), actual.getNumberOfNodes());
+    }
+
+    /**
+     * @return a copy of given collection, as the sets returned by ICFGs
+     * may be views which do not implement {@link Set#equals(Object)}.
+     */
+    private static <T> Set<T> copy(Collection<T> collection) {
+        return new HashSet<>(collection);
+    }
+
+    /**
+     * @return the keys of given edges, which compare the kinds, the
+     * nodes and the extra information of the edges, as the equality of
+     * edges only compares the kinds and the nodes.
+     */
+    static Set<List<Object>> toKeys(Collection<? extends ICFGEdge<?>> edges) {
+        return edges.stream()
+                .map(ICFGTests::toKey)
+                .collect(Collectors.toSet());
+    }
+
+    private static List<Object> toKey(ICFGEdge<?> edge) {
+        List<Object> key = new ArrayList<>();
+        key.add(edge.getClass());
+        key.add(edge.getSource());
+        key.add(edge.getTarget());
+        if (edge instanceof CallEdge<?> call) {
+            key.add(call.getCallee());
+        } else if (edge instanceof ReturnEdge<?> ret) {
+            key.add(ret.getCallSite());
+            key.add(Set.copyOf(ret.getReturnVars()));
+            key.add(Set.copyOf(ret.getExceptions()));
+        }
+        return key;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.junit.Test;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import static org.junit.Assert.assertEquals;
+
+public class LazyICFGTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
+
+    void test(String main) {
+        ICFG<JMethod, Stmt> expected = ICFGTests.buildICFG(
+                main, CLASS_PATH, "-a", "cg=algorithm:cha");
+        ICFGTests.assertSameICFG(expected, new LazyICFG(ICFGTests.getCallGraph()));
+    }
+
+    @Test
+    public void testExample() {
+        test("Example");
+    }
+
+    @Test
+    public void testReference() {
+        test("Reference");
+    }
+
+    @Test
+    public void testFibonacci() {
+        test("Fibonacci");
+    }
+
+    @Test
+    public void testMultiIntArgs() {
+        test("MultiIntArgs");
+    }
+
+    /**
+     * The edges of the entry node of the entry method require only
+     * the edges of the entry method.
+     */
+    @Test
+    public void testBuildOnDemand() {
+        ICFG<JMethod, Stmt> expected = ICFGTests.buildICFG(
+                "Example", CLASS_PATH, "-a", "cg=algorithm:cha");
+        LazyICFG icfg = new LazyICFG(ICFGTests.getCallGraph());
+        JMethod main = icfg.entryMethods().findFirst().orElseThrow();
+        Stmt entry = icfg.getEntryOf(main);
+        assertEquals(0, icfg.getBuiltMethodCount());
+        assertEquals(ICFGTests.toKeys(expected.getOutEdgesOf(entry)),
+                ICFGTests.toKeys(icfg.getOutEdgesOf(entry)));
+        assertEquals(1, icfg.getBuiltMethodCount());
+    }
+}
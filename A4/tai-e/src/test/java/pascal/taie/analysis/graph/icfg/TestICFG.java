@@ -0,0 +1,195 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.icfg;
+
+import pascal.taie.analysis.graph.cfg.TestEdges;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * ICFG for tests, whose methods and nodes are integers. Methods are
+ * numbered in the order of their creation, and the nodes of each method
+ * are consecutive integers starting from its entry and ending with its
+ * exit. The first method is the only entry method.
+ */
+public class TestICFG implements ICFG<Integer, Integer> {
+
+    private final List<Integer> entries = new ArrayList<>();
+
+    private final List<Integer> exits = new ArrayList<>();
+
+    private final List<Integer> containers = new ArrayList<>();
+
+    private final MultiMap<Integer, ICFGEdge<Integer>> inEdges = Maps.newMultiMap();
+
+    private final MultiMap<Integer, ICFGEdge<Integer>> outEdges = Maps.newMultiMap();
+
+    private final MultiMap<Integer, Integer> callees = Maps.newMultiMap();
+
+    private final MultiMap<Integer, Integer> returnSites = Maps.newMultiMap();
+
+    private final MultiMap<Integer, Integer> callers = Maps.newMultiMap();
+
+    /**
+     * Adds a method with given number of nodes (at least two),
+     * which has no edges yet.
+     *
+     * @return the added method.
+     */
+    public int addMethod(int nodes) {
+        int method = entries.size();
+        entries.add(containers.size());
+        exits.add(containers.size() + nodes - 1);
+        for (int i = 0; i < nodes; ++i) {
+            containers.add(method);
+        }
+        return method;
+    }
+
+    /**
+     * Adds a normal edge between two nodes of the same method.
+     */
+    public TestICFG normal(int source, int target) {
+        addEdge(new NormalEdge<>(TestEdges.newEdge(source, target)));
+        return this;
+    }
+
+    /**
+     * Adds a call from given call site to given method, together with
+     * the call-to-return edge and the return edge.
+     */
+    public TestICFG call(int callSite, int retSite, int callee) {
+        if (!returnSites.get(callSite).contains(retSite)) {
+            addEdge(new CallToReturnEdge<>(TestEdges.newEdge(callSite, retSite)));
+            returnSites.put(callSite, retSite);
+        }
+        addEdge(new CallEdge<>(callSite, getEntryOf(callee), null));
+        addEdge(new ReturnEdge<>(getExitOf(callee), retSite, callSite,
+                List.of(), List.of()));
+        callees.put(callSite, callee);
+        callers.put(callee, callSite);
+        return this;
+    }
+
+    private void addEdge(ICFGEdge<Integer> edge) {
+        outEdges.put(edge.getSource(), edge);
+        inEdges.put(edge.getTarget(), edge);
+    }
+
+    /**
+     * @return the number of methods.
+     */
+    public int getNumberOfMethods() {
+        return entries.size();
+    }
+
+    @Override
+    public Stream<Integer> entryMethods() {
+        return Stream.of(0);
+    }
+
+    @Override
+    public Set<ICFGEdge<Integer>> getInEdgesOf(Integer node) {
+        return inEdges.get(node);
+    }
+
+    @Override
+    public Set<ICFGEdge<Integer>> getOutEdgesOf(Integer node) {
+        return outEdges.get(node);
+    }
+
+    @Override
+    public Set<Integer> getCalleesOf(Integer callSite) {
+        return callees.get(callSite);
+    }
+
+    @Override
+    public Set<Integer> getReturnSitesOf(Integer callSite) {
+        return returnSites.get(callSite);
+    }
+
+    @Override
+    public Integer getEntryOf(Integer method) {
+        return entries.get(method);
+    }
+
+    @Override
+    public Integer getExitOf(Integer method) {
+        return exits.get(method);
+    }
+
+    @Override
+    public Set<Integer> getCallersOf(Integer method) {
+        return callers.get(method);
+    }
+
+    @Override
+    public Integer getContainingMethodOf(Integer node) {
+        return containers.get(node);
+    }
+
+    @Override
+    public boolean isCallSite(Integer node) {
+        return callees.containsKey(node);
+    }
+
+    @Override
+    public boolean hasNode(Integer node) {
+        return node >= 0 && node < containers.size();
+    }
+
+    @Override
+    public boolean hasEdge(Integer source, Integer target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<Integer> getPredsOf(Integer node) {
+        Set<Integer> preds = Sets.newHybridOrderedSet();
+        getInEdgesOf(node).forEach(e -> preds.add(e.getSource()));
+        return preds;
+    }
+
+    @Override
+    public Set<Integer> getSuccsOf(Integer node) {
+        Set<Integer> succs = Sets.newHybridOrderedSet();
+        getOutEdgesOf(node).forEach(e -> succs.add(e.getTarget()));
+        return succs;
+    }
+
+    @Override
+    public Set<Integer> getNodes() {
+        Set<Integer> nodes = Sets.newHybridOrderedSet();
+        for (int i = 0; i < containers.size(); ++i) {
+            nodes.add(i);
+        }
+        return nodes;
+    }
+}
@@ -30,12 +30,22 @@ import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.TwoKeyMap;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * Represents pointer flow graph in pointer analysis.
+ * <p>
+ * When cycle collapsing is enabled, the graph merges the pointers of
+ * a cycle into one representative. All merged pointers share the
+ * points-to set of the representative, and their edges are redirected
+ * to it. The cycles are detected lazily, see {@link #checkCycle}.
  */
 class PointerFlowGraph {
 
@@ -69,6 +79,55 @@ class PointerFlowGraph {
      */
     private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
 
+    /**
+     * Whether pointers in cycles are merged.
+     */
+    private final boolean collapseCycles;
+
+    /**
+     * Receives the points-to sets which need to be (re-)propagated
+     * to pointers after a cycle is collapsed.
+     */
+    private final BiConsumer<Pointer, PointsToSet> propagator;
+
+    /**
+     * Map from a pointer (node) to its predecessors in PFG,
+     * maintained only when cycles are collapsed.
+     */
+    private final MultiMap<Pointer, Pointer> predecessors = Maps.newMultiMap();
+
+    /**
+     * Map from merged pointers to the pointers they were merged into.
+     * Representatives are absent in this map.
+     */
+    private final Map<Pointer, Pointer> mergedInto = Maps.newMap();
+
+    /**
+     * Map from representatives to the pointers merged into them.
+     */
+    private final MultiMap<Pointer, Pointer> members = Maps.newMultiMap();
+
+    /**
+     * Edges which have been checked by lazy cycle detection.
+     */
+    private final MultiMap<Pointer, Pointer> checkedEdges = Maps.newMultiMap();
+
+    PointerFlowGraph() {
+        this(false, (p, pts) -> {});
+    }
+
+    /**
+     * @param collapseCycles whether pointers in cycles are merged.
+     * @param propagator     receives the pointers and the points-to sets
+     *                       to be propagated to them after a cycle is
+     *                       collapsed, typically the work list.
+     */
+    PointerFlowGraph(boolean collapseCycles,
+                     BiConsumer<Pointer, PointsToSet> propagator) {
+        this.collapseCycles = collapseCycles;
+        this.propagator = propagator;
+    }
+
     /**
      * Returns all pointers in this PFG.
      */
@@ -128,13 +187,187 @@ class PointerFlowGraph {
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        if (!collapseCycles) {
+            return successors.put(source, target);
+        }
+        Pointer s = getRepresentative(source);
+        Pointer t = getRepresentative(target);
+        if (s != t && successors.put(s, t)) {
+            predecessors.put(t, s);
+            return true;
+        }
+        return false;
     }
 
     /**
-     * @return successors of given pointer in the PFG.
+     * Lazy cycle detection: the solver calls this method after it has
+     * propagated the points-to set of source along edge source -> target.
+     * If the points-to sets of the two pointers are then identical, the
+     * edge is likely on a cycle, thus the pointers reachable from target
+     * that can reach source are collapsed. Each edge is checked at most
+     * once, which bounds the cost of the searches that find no cycle.
+     * <p>
+     * Collapsing changes the successors of the pointers around the cycle,
+     * thus this method must not be called while iterating the set returned
+     * by {@link #getSuccsOf}, e.g., the solver checks the edges of a pointer
+     * after it has propagated to all successors of the pointer.
+     */
+    void checkCycle(Pointer source, Pointer target) {
+        if (!collapseCycles) {
+            return;
+        }
+        Pointer s = getRepresentative(source);
+        Pointer t = getRepresentative(target);
+        if (s == t || !hasSamePointsToSet(s, t)
+                || !checkedEdges.put(s, t)) {
+            return;
+        }
+        List<Pointer> cycle = findCycle(s, t);
+        if (!cycle.isEmpty()) {
+            collapse(cycle);
+        }
+    }
+
+    private static boolean hasSamePointsToSet(Pointer p1, Pointer p2) {
+        PointsToSet pts1 = p1.getPointsToSet();
+        PointsToSet pts2 = p2.getPointsToSet();
+        if (pts1.isEmpty() || pts1.size() != pts2.size()) {
+            return false;
+        }
+        for (Obj obj : pts1) {
+            if (!pts2.contains(obj)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return successors of given pointer in the PFG. When cycles are
+     * collapsed, the successors are representatives, and they are the
+     * successors of the representative of given pointer.
      */
     Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+        return collapseCycles ?
+                successors.get(getRepresentative(pointer)) :
+                successors.get(pointer);
+    }
+
+    /**
+     * @return the pointer that given pointer has been merged into,
+     * or the pointer itself if it has not been merged.
+     */
+    Pointer getRepresentative(Pointer pointer) {
+        Pointer root = pointer;
+        for (Pointer p; (p = mergedInto.get(root)) != null; ) {
+            root = p;
+        }
+        // path compression
+        while (pointer != root) {
+            pointer = mergedInto.put(pointer, root);
+        }
+        return root;
+    }
+
+    /**
+     * Finds the pointers on the cycles through edge source -> target,
+     * i.e., the pointers that are reachable from target and can reach
+     * source. The search visits the pointers reachable from target and
+     * records the reversed edges among them, then the pointers on
+     * the cycles are the ones that reach source along reversed edges.
+     *
+     * @return the pointers on the cycles, with source first,
+     * or an empty list if there is no cycle.
+     */
+    private List<Pointer> findCycle(Pointer source, Pointer target) {
+        MultiMap<Pointer, Pointer> preds = Maps.newMultiMap();
+        Set<Pointer> reached = Sets.newSet();
+        Deque<Pointer> stack = new ArrayDeque<>();
+        reached.add(target);
+        stack.push(target);
+        while (!stack.isEmpty()) {
+            Pointer p = stack.pop();
+            for (Pointer succ : getSuccsOf(p)) {
+                preds.put(succ, p);
+                if (reached.add(succ)) {
+                    stack.push(succ);
+                }
+            }
+        }
+        if (!reached.contains(source)) {
+            return List.of();
+        }
+        List<Pointer> cycle = new ArrayList<>();
+        Set<Pointer> onCycle = Sets.newSet();
+        onCycle.add(source);
+        stack.push(source);
+        while (!stack.isEmpty()) {
+            Pointer p = stack.pop();
+            cycle.add(p);
+            for (Pointer pred : preds.get(p)) {
+                if (onCycle.add(pred)) {
+                    stack.push(pred);
+                }
+            }
+        }
+        return cycle;
+    }
+
+    /**
+     * Merges given pointers into the first one. The edges of the other
+     * pointers are moved to the representative, so that the keys and
+     * values of {@link #successors} and {@link #predecessors} are always
+     * representatives.
+     */
+    private void collapse(List<Pointer> cycle) {
+        Pointer rep = cycle.get(0);
+        PointsToSet pts = rep.getPointsToSet();
+        Set<Pointer> succs = Sets.newHybridSet();
+        Set<Pointer> preds = Sets.newHybridSet();
+        for (Pointer p : cycle) {
+            if (p == rep) {
+                continue;
+            }
+            // detach p from its neighbors
+            for (Pointer succ : List.copyOf(successors.get(p))) {
+                succs.add(succ);
+                predecessors.remove(succ, p);
+            }
+            for (Pointer pred : List.copyOf(predecessors.get(p))) {
+                preds.add(pred);
+                successors.remove(pred, p);
+            }
+            successors.removeAll(p);
+            predecessors.removeAll(p);
+            mergedInto.put(p, rep);
+            PointsToSet oldPts = p.getPointsToSet();
+            p.setPointsToSet(pts);
+            members.put(rep, p);
+            for (Pointer member : members.get(p)) {
+                member.setPointsToSet(pts);
+                members.put(rep, member);
+            }
+            members.removeAll(p);
+            if (!oldPts.isEmpty()) {
+                // objects of p still need to reach rep
+                // and all successors of the cycle
+                propagator.accept(rep, oldPts);
+            }
+        }
+        for (Pointer succ : succs) {
+            if (getRepresentative(succ) != rep && successors.put(rep, succ)) {
+                predecessors.put(succ, rep);
+                if (!pts.isEmpty()) {
+                    // successors of other pointers in the cycle
+                    // may miss the objects of rep
+                    propagator.accept(succ, pts);
+                }
+            }
+        }
+        for (Pointer pred : preds) {
+            if (getRepresentative(pred) != rep && successors.put(pred, rep)) {
+                predecessors.put(rep, pred);
+            }
+        }
     }
 }
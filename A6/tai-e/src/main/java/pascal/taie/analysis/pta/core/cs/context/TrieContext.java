@@ -0,0 +1,201 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contexts organized as the nodes of a trie. Each context is represented
+ * by a node with a link to its parent (the context without its last
+ * element) and the last element.
+ * <p>
+ * All contexts are interned by {@link Factory}, so that each distinct
+ * context of a factory exists exactly once. Thus, equality of contexts
+ * is reference comparison, and the hash code is computed once, when
+ * the context is created. Each context also receives a unique id on
+ * creation, by which context-sensitive elements can be indexed without
+ * hashing the context.
+ *
+ * @param <T> type of context elements
+ */
+public class TrieContext<T> implements Context {
+
+    /**
+     * Counter of the ids of all trie contexts, so that contexts of
+     * different factories have different ids.
+     */
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    private final int id = counter.getAndIncrement();
+
+    private final TrieContext<T> parent;
+
+    private final T elem;
+
+    private final int length;
+
+    private final int hashCode;
+
+    /**
+     * Children of this context, created on demand.
+     */
+    private Map<T, TrieContext<T>> children;
+
+    /**
+     * This context without its first element, computed on demand.
+     */
+    private TrieContext<T> suffix;
+
+    private TrieContext() {
+        this.parent = null;
+        this.elem = null;
+        this.length = 0;
+        this.hashCode = 1;
+    }
+
+    private TrieContext(TrieContext<T> parent, T elem) {
+        this.parent = parent;
+        this.elem = elem;
+        this.length = parent.length + 1;
+        // same as hash code of the list of elements
+        this.hashCode = 31 * parent.hashCode + elem.hashCode();
+    }
+
+    /**
+     * @return the unique id of this context, which is non-negative.
+     */
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public Object getElementAt(int i) {
+        if (i < 0 || i >= length) {
+            throw new AnalysisException(
+                    "Context " + this + " doesn't have " + i + "-th element");
+        }
+        TrieContext<T> c = this;
+        for (int n = length - 1 - i; n > 0; --n) {
+            c = c.parent;
+        }
+        return c.elem;
+    }
+
+    private TrieContext<T> getChild(T elem) {
+        if (children == null) {
+            children = Maps.newHybridMap();
+        }
+        return children.computeIfAbsent(elem, e -> new TrieContext<>(this, e));
+    }
+
+    /**
+     * @return this context without its first element.
+     */
+    private TrieContext<T> getSuffix() {
+        if (suffix == null) {
+            suffix = parent.length == 0 ? parent : parent.getSuffix().getChild(elem);
+        }
+        return suffix;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("]");
+        for (TrieContext<T> c = this; c.length > 0; c = c.parent) {
+            if (c != this) {
+                sb.insert(0, ", ");
+            }
+            sb.insert(0, c.elem);
+        }
+        return sb.insert(0, '[').toString();
+    }
+
+    /**
+     * Creates and interns trie contexts. Contexts made by different
+     * factories are different.
+     *
+     * @param <T> type of context elements
+     */
+    public static class Factory<T> implements ContextFactory<T> {
+
+        private final TrieContext<T> root = new TrieContext<>();
+
+        @Override
+        public Context getEmptyContext() {
+            return root;
+        }
+
+        @Override
+        @SafeVarargs
+        public final Context make(T... elements) {
+            TrieContext<T> c = root;
+            for (T elem : elements) {
+                c = c.getChild(elem);
+            }
+            return c;
+        }
+
+        @Override
+        public Context makeLastK(Context context, int k) {
+            TrieContext<T> c = cast(context);
+            while (c.length > k) {
+                c = c.getSuffix();
+            }
+            return c;
+        }
+
+        @Override
+        public Context append(Context parent, T elem, int limit) {
+            if (limit <= 0) {
+                return root;
+            }
+            return cast(makeLastK(parent, limit - 1)).getChild(elem);
+        }
+
+        /**
+         * Contexts given to this factory must be made by it.
+         */
+        @SuppressWarnings("unchecked")
+        private TrieContext<T> cast(Context context) {
+            if (context instanceof TrieContext<?> c) {
+                return (TrieContext<T>) c;
+            }
+            throw new AnalysisException(
+                    "Context " + context + " is not a trie context");
+        }
+    }
+}
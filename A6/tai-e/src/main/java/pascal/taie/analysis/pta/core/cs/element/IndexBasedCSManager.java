@@ -0,0 +1,342 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.TrieContext;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.LongObjectHashMap;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Manages context-sensitive elements and pointers by integer indexes.
+ * <p>
+ * Contexts, objects, fields and methods are interned to integers once
+ * (trie contexts are numbered when they are created),
+ * and each variable (call site) is numbered by a per-method base plus
+ * its index in the IR of its method. A context-sensitive element is then
+ * looked up by the pair of the two integers packed in a long key, in
+ * primitive-keyed open-addressing tables, without nested hash maps and
+ * repeated hashing of contexts. Array index pointers are kept in a flat
+ * list indexed by the index of their array objects.
+ */
+public class IndexBasedCSManager implements CSManager {
+
+    private final Map<Context, Integer> contextIds = Maps.newMap();
+
+    private final Map<Obj, Integer> objIds = Maps.newMap();
+
+    private final Map<JField, Integer> fieldIds = Maps.newMap();
+
+    private final Map<JMethod, MethodInfo> methodInfos = Maps.newMap();
+
+    /**
+     * Next unused variable number, used as the base of the next method.
+     */
+    private int varCounter = 0;
+
+    /**
+     * Next unused call site number, used as the base of the next method.
+     */
+    private int callSiteCounter = 0;
+
+    private final LongObjectHashMap<CSVar> varTable = new LongObjectHashMap<>(1024);
+
+    private final LongObjectHashMap<CSObj> objTable = new LongObjectHashMap<>(1024);
+
+    private final LongObjectHashMap<CSCallSite> callSiteTable = new LongObjectHashMap<>(1024);
+
+    private final LongObjectHashMap<CSMethod> methodTable = new LongObjectHashMap<>(1024);
+
+    private final LongObjectHashMap<InstanceField> instanceFieldTable = new LongObjectHashMap<>(1024);
+
+    private final Map<JField, StaticField> staticFields = Maps.newMap();
+
+    /**
+     * Array index pointers, indexed by the index of the array objects.
+     */
+    private final List<ArrayIndex> arrayIndexes = new ArrayList<>();
+
+    /**
+     * Variables that have context-sensitive variables, in creation order.
+     */
+    private final List<Var> vars = new ArrayList<>();
+
+    /**
+     * Context-sensitive variables grouped by their variables,
+     * indexed by the positions of the variables in {@link #vars}.
+     */
+    private final List<List<CSVar>> csVarsOf = new ArrayList<>();
+
+    /**
+     * Map from variable numbers to positions in {@link #vars}.
+     */
+    private final LongObjectHashMap<Integer> varPositions = new LongObjectHashMap<>(1024);
+
+    private final List<CSVar> csVars = new ArrayList<>();
+
+    private final List<CSObj> csObjs = new ArrayList<>();
+
+    private final List<InstanceField> instanceFields = new ArrayList<>();
+
+    private final List<ArrayIndex> arrayIndexList = new ArrayList<>();
+
+    private final Indexer<CSObj> objIndexer = new Indexer<>() {
+
+        @Override
+        public int getIndex(CSObj o) {
+            return o.getIndex();
+        }
+
+        @Override
+        public CSObj getObject(int index) {
+            return csObjs.get(index);
+        }
+    };
+
+    private final PointsToSetFactory ptsFactory;
+
+    /**
+     * Creates a manager whose pointers have hash-based points-to sets.
+     */
+    public IndexBasedCSManager() {
+        this(null);
+    }
+
+    /**
+     * @param ptsBackend the backend of the points-to sets of the pointers,
+     *                   see {@link PointsToSetFactory}.
+     */
+    public IndexBasedCSManager(String ptsBackend) {
+        ptsFactory = new PointsToSetFactory(ptsBackend, objIndexer);
+    }
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        int varId = getMethodInfo(var.getMethod()).getVarBase() + var.getIndex();
+        long key = key(getContextId(context), varId);
+        CSVar csVar = varTable.get(key);
+        if (csVar == null) {
+            csVar = initializePointsToSet(new CSVar(var, context));
+            varTable.put(key, csVar);
+            csVars.add(csVar);
+            Integer pos = varPositions.get(varId);
+            if (pos == null) {
+                pos = vars.size();
+                varPositions.put(varId, pos);
+                vars.add(var);
+                csVarsOf.add(new ArrayList<>(1));
+            }
+            csVarsOf.get(pos).add(csVar);
+        }
+        return csVar;
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        int objId = objIds.computeIfAbsent(obj, o -> objIds.size());
+        return objTable.computeIfAbsent(key(getContextId(heapContext), objId),
+                k -> {
+                    CSObj csObj = new CSObj(obj, heapContext, csObjs.size());
+                    csObjs.add(csObj);
+                    return csObj;
+                });
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        int callSiteId = getMethodInfo(callSite.getContainer())
+                .getCallSiteBase() + callSite.getIndex();
+        return callSiteTable.computeIfAbsent(
+                key(getContextId(context), callSiteId),
+                k -> new CSCallSite(callSite, context));
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        return methodTable.computeIfAbsent(
+                key(getContextId(context), getMethodInfo(method).id),
+                k -> new CSMethod(method, context));
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        return staticFields.computeIfAbsent(field,
+                f -> initializePointsToSet(new StaticField(f)));
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        int fieldId = fieldIds.computeIfAbsent(field, f -> fieldIds.size());
+        return instanceFieldTable.computeIfAbsent(key(base.getIndex(), fieldId),
+                k -> {
+                    InstanceField instanceField = initializePointsToSet(
+                            new InstanceField(base, field));
+                    instanceFields.add(instanceField);
+                    return instanceField;
+                });
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        int index = array.getIndex();
+        while (arrayIndexes.size() <= index) {
+            arrayIndexes.add(null);
+        }
+        ArrayIndex arrayIndex = arrayIndexes.get(index);
+        if (arrayIndex == null) {
+            arrayIndex = initializePointsToSet(new ArrayIndex(array));
+            arrayIndexes.set(index, arrayIndex);
+            arrayIndexList.add(arrayIndex);
+        }
+        return arrayIndex;
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return Collections.unmodifiableList(vars);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        MethodInfo info = methodInfos.get(var.getMethod());
+        Integer pos = info == null ? null :
+                varPositions.get(info.getVarBase() + var.getIndex());
+        return pos != null ?
+                Collections.unmodifiableList(csVarsOf.get(pos)) : List.of();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return Collections.unmodifiableList(csVars);
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return Collections.unmodifiableList(csObjs);
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return Collections.unmodifiableCollection(staticFields.values());
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return Collections.unmodifiableList(instanceFields);
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return Collections.unmodifiableList(arrayIndexList);
+    }
+
+    @Override
+    public Indexer<CSObj> getObjectIndexer() {
+        return objIndexer;
+    }
+
+    @Override
+    public PointsToSetFactory getPointsToSetFactory() {
+        return ptsFactory;
+    }
+
+    /**
+     * Trie contexts carry the ids assigned on their creation, which are
+     * mapped to even numbers. Other contexts are interned by this manager
+     * and mapped to odd numbers.
+     */
+    private int getContextId(Context context) {
+        if (context instanceof TrieContext<?> trieContext) {
+            return trieContext.getId() << 1;
+        }
+        return contextIds.computeIfAbsent(context,
+                c -> (contextIds.size() << 1) | 1);
+    }
+
+    private MethodInfo getMethodInfo(JMethod method) {
+        return methodInfos.computeIfAbsent(method,
+                m -> new MethodInfo(m, methodInfos.size()));
+    }
+
+    /**
+     * Packs two integers into a long key.
+     */
+    private static long key(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    private <P extends Pointer> P initializePointsToSet(P pointer) {
+        pointer.setPointsToSet(ptsFactory.makePointsToSet());
+        return pointer;
+    }
+
+    /**
+     * Integer numbering of a method. The bases of variables and call
+     * sites are allocated when they are first needed, as abstract
+     * and native methods do not have IR.
+     */
+    private class MethodInfo {
+
+        private final JMethod method;
+
+        private final int id;
+
+        private int varBase = -1;
+
+        private int callSiteBase = -1;
+
+        private MethodInfo(JMethod method, int id) {
+            this.method = method;
+            this.id = id;
+        }
+
+        private int getVarBase() {
+            if (varBase < 0) {
+                varBase = varCounter;
+                varCounter += method.getIR().getVars().size();
+            }
+            return varBase;
+        }
+
+        private int getCallSiteBase() {
+            if (callSiteBase < 0) {
+                callSiteBase = callSiteCounter;
+                callSiteCounter += method.getIR().getStmts().size();
+            }
+            return callSiteBase;
+        }
+    }
+}
@@ -22,25 +22,33 @@
 
 package pascal.taie.analysis.pta.cs;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.selector.CISelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.SelectiveSelector;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
 import pascal.taie.analysis.pta.plugin.ResultProcessor;
+import pascal.taie.analysis.pta.toolkit.zipper.Zipper;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.Strings;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Set;
 
 /**
  * Context-sensitive pointer analysis.
  */
 public class CSPTA extends ProgramAnalysis {
 
+    private static final Logger logger = LogManager.getLogger(CSPTA.class);
+
     public static final String ID = "cspta";
 
     public CSPTA(AnalysisConfig config) {
@@ -50,15 +58,54 @@ public class CSPTA extends ProgramAnalysis {
     @Override
     public PointerAnalysisResult analyze() {
         AnalysisOptions options = getOptions();
+        ContextSelector selector = getContextSelector(options.getString("cs"));
+        Set<JMethod> csMethods = null;
+        String advanced = options.getString("advanced");
+        if (advanced != null) {
+            csMethods = selectCSMethods(options, advanced);
+            selector = new SelectiveSelector(selector, csMethods);
+        }
         Solver solver = new Solver(options,
-                new AllocationSiteBasedModel(options),
-                getContextSelector(options.getString("cs")));
+                new AllocationSiteBasedModel(options), selector);
         solver.solve();
         PointerAnalysisResult result = solver.getResult();
+        if (csMethods != null) {
+            result.storeResult(SelectiveSelector.CS_METHODS, csMethods);
+        }
         ResultProcessor.process(options, result);
         return result;
     }
 
+    /**
+     * Runs a context-insensitive pre-analysis, and selects the methods
+     * that should be analyzed context-sensitively from its result.
+     * <p>
+     * The pre-analysis runs on the {@link Solver} of this assignment, with
+     * {@link CISelector}. Thus, the selection is only meaningful once the
+     * solver is finished: with an unfinished solver the pre-analysis
+     * finds no points-to relations, Zipper selects no methods, and the main
+     * analysis degenerates to a context-insensitive one.
+     *
+     * @param advanced the selection technique, currently only "zipper".
+     */
+    private static Set<JMethod> selectCSMethods(
+            AnalysisOptions options, String advanced) {
+        if (!advanced.equals("zipper")) {
+            throw new ConfigException("Unknown advanced analysis: " + advanced);
+        }
+        logger.info("Running context-insensitive pre-analysis ...");
+        Solver preSolver = new Solver(options,
+                new AllocationSiteBasedModel(options), new CISelector());
+        preSolver.solve();
+        Set<JMethod> csMethods = new Zipper(preSolver.getResult())
+                .selectPrecisionCriticalMethods();
+        if (csMethods.isEmpty()) {
+            logger.warn("Zipper selects no methods, the analysis" +
+                    " is context-insensitive");
+        }
+        return csMethods;
+    }
+
     private static ContextSelector getContextSelector(String cs) {
         if (cs.equals("ci")) {
             return new CISelector();
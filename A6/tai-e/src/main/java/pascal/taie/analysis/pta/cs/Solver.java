@@ -38,6 +38,7 @@ import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.IndexBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.InstanceField;
 import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
@@ -48,6 +49,7 @@ import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Copy;
@@ -95,10 +97,15 @@ class Solver {
     }
 
     private void initialize() {
-        csManager = new MapBasedCSManager();
+        csManager = makeCSManager(options.getString("cs-manager"),
+                options.getString("pts"));
         callGraph = new CSCallGraph(csManager);
-        pointerFlowGraph = new PointerFlowGraph();
-        workList = new WorkList();
+        workList = new WorkList(
+                options.getBooleanOrDefault("coalesce-worklist", false),
+                csManager.getPointsToSetFactory());
+        pointerFlowGraph = new PointerFlowGraph(
+                options.getBooleanOrDefault("collapse-cycles", false),
+                workList::addEntry);
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
         JMethod main = World.get().getMainMethod();
@@ -107,6 +114,22 @@ class Solver {
         addReachable(csMethod);
     }
 
+    /**
+     * @param kind       "map" (default) for {@link MapBasedCSManager},
+     *                   or "index" for {@link IndexBasedCSManager}.
+     * @param ptsBackend the backend of the points-to sets, see
+     *                   {@link PointsToSetFactory}.
+     */
+    private static CSManager makeCSManager(String kind, String ptsBackend) {
+        if (kind == null || kind.equals("map")) {
+            return new MapBasedCSManager(ptsBackend);
+        } else if (kind.equals("index")) {
+            return new IndexBasedCSManager(ptsBackend);
+        } else {
+            throw new ConfigException("Unknown CS manager: " + kind);
+        }
+    }
+
     /**
      * Processes new reachable context-sensitive method.
      */
@@ -149,6 +172,9 @@ class Solver {
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
+     * When cycles are collapsed, {@link PointerFlowGraph#checkCycle}
+     * should be called for each successor after the propagation to all
+     * successors, as collapsing changes the successor sets.
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         // TODO - finish me
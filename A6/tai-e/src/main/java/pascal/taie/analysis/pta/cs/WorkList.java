@@ -24,22 +24,66 @@ package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 
 import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Queue;
 
 /**
  * Represents work list in pointer analysis.
+ * <p>
+ * In coalescing mode, the work list keeps at most one pending points-to
+ * set for each pointer, and the points-to sets added for a pointer that
+ * is already pending are merged into its pending set. Pointers are still
+ * retrieved in the order they first became pending.
  */
 class WorkList {
 
     private final Queue<Entry> entries = new ArrayDeque<>();
 
+    /**
+     * Whether points-to sets of the same pointer are coalesced.
+     */
+    private final boolean coalesce;
+
+    /**
+     * Map from pending pointers to their pending points-to sets,
+     * used in coalescing mode.
+     */
+    private final Map<Pointer, Pending> pendings = new LinkedHashMap<>();
+
+    /**
+     * Factory of the points-to sets, used to copy pending points-to sets
+     * in coalescing mode.
+     */
+    private final PointsToSetFactory ptsFactory;
+
+    WorkList() {
+        this(false, null);
+    }
+
+    WorkList(boolean coalesce, PointsToSetFactory ptsFactory) {
+        this.coalesce = coalesce;
+        this.ptsFactory = ptsFactory;
+    }
+
     /**
      * Adds an entry to the work list.
      */
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
-        entries.add(new Entry(pointer, pointsToSet));
+        if (coalesce) {
+            Pending pending = pendings.get(pointer);
+            if (pending == null) {
+                pendings.put(pointer, new Pending(pointsToSet));
+            } else {
+                pending.merge(pointsToSet, ptsFactory);
+            }
+        } else {
+            entries.add(new Entry(pointer, pointsToSet));
+        }
     }
 
     /**
@@ -47,14 +91,25 @@ class WorkList {
      * if this work list is empty.
      */
     Entry pollEntry() {
-        return entries.poll();
+        if (coalesce) {
+            Iterator<Map.Entry<Pointer, Pending>> iter =
+                    pendings.entrySet().iterator();
+            if (!iter.hasNext()) {
+                return null;
+            }
+            Map.Entry<Pointer, Pending> next = iter.next();
+            iter.remove();
+            return new Entry(next.getKey(), next.getValue().pointsToSet);
+        } else {
+            return entries.poll();
+        }
     }
 
     /**
      * @return true if the work list is empty, otherwise false.
      */
     boolean isEmpty() {
-        return entries.isEmpty();
+        return coalesce ? pendings.isEmpty() : entries.isEmpty();
     }
 
     /**
@@ -63,4 +118,30 @@ class WorkList {
      */
     record Entry(Pointer pointer, PointsToSet pointsToSet) {
     }
+
+    /**
+     * Pending points-to set of a pointer in coalescing mode.
+     * The first added set is kept as is, and it is copied before
+     * the first merge, as it may be shared with other pointers.
+     */
+    private static class Pending {
+
+        private PointsToSet pointsToSet;
+
+        private boolean copied = false;
+
+        private Pending(PointsToSet pointsToSet) {
+            this.pointsToSet = pointsToSet;
+        }
+
+        private void merge(PointsToSet pts, PointsToSetFactory ptsFactory) {
+            if (!copied) {
+                PointsToSet copy = ptsFactory.makePointsToSet();
+                copy.addAll(pointsToSet);
+                pointsToSet = copy;
+                copied = true;
+            }
+            pointsToSet.addAll(pts);
+        }
+    }
 }
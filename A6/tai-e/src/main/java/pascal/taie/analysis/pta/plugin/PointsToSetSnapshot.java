@@ -0,0 +1,352 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.util.AnalysisException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Compact binary snapshot of points-to sets, an alternative to the text
+ * format dumped by {@link ResultProcessor}.
+ * <p>
+ * The layout is as follows. Apart from the 8-byte header, all integers
+ * are unsigned LEB128 varints, and strings are written as a varint
+ * length followed by UTF-8 bytes.
+ * <pre>
+ * MAGIC VERSION
+ * #objects object-string*            (interned object table)
+ * #categories category*
+ * category: description #pointers entry*
+ * entry:    pointer-string #objects delta-encoded-object-id*
+ * </pre>
+ * The object table is sorted, so that ascending object ids agree with
+ * the string order used by the text format, and the object ids of each
+ * points-to set are stored in ascending order as deltas.
+ */
+final class PointsToSetSnapshot {
+
+    private static final int MAGIC = 0x54505453; // "TPTS"
+
+    private static final int VERSION = 1;
+
+    /**
+     * Size of the file region mapped into memory at a time.
+     */
+    private static final int WINDOW_SIZE = 1 << 26;
+
+    private PointsToSetSnapshot() {
+    }
+
+    /**
+     * @return true if given file starts with the snapshot header.
+     */
+    static boolean isSnapshot(Path path) {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] header = in.readNBytes(4);
+            return header.length == 4 &&
+                    ((header[0] & 0xff) << 24 | (header[1] & 0xff) << 16 |
+                            (header[2] & 0xff) << 8 | (header[3] & 0xff)) == MAGIC;
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to read " + path, e);
+        }
+    }
+
+    /**
+     * Writes the points-to sets of given pointers to a snapshot file.
+     *
+     * @param categories map from description of each pointer category
+     *                   to the pointers in the category.
+     */
+    static void write(Map<String, Collection<? extends Pointer>> categories,
+                      Path output) {
+        // intern the objects
+        Map<CSObj, String> objNames = new HashMap<>();
+        categories.values().forEach(pointers -> pointers.forEach(p ->
+                p.getPointsToSet().forEach(o ->
+                        objNames.computeIfAbsent(o, Object::toString))));
+        String[] objects = objNames.values()
+                .stream()
+                .distinct()
+                .sorted()
+                .toArray(String[]::new);
+        Map<String, Integer> objIds = new HashMap<>(objects.length * 2);
+        for (int i = 0; i < objects.length; ++i) {
+            objIds.put(objects[i], i);
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(output), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeVarInt(out, objects.length);
+            for (String object : objects) {
+                writeString(out, object);
+            }
+            writeVarInt(out, categories.size());
+            for (var entry : categories.entrySet()) {
+                writeString(out, entry.getKey());
+                Collection<? extends Pointer> pointers = entry.getValue();
+                writeVarInt(out, pointers.size());
+                Map<Pointer, String> names = new HashMap<>(pointers.size() * 2);
+                pointers.forEach(p -> names.put(p, p.toString()));
+                var sorted = pointers.stream()
+                        .sorted(Comparator.comparing(names::get))
+                        .toList();
+                for (Pointer p : sorted) {
+                    writeString(out, names.get(p));
+                    int[] ids = p.getPointsToSet()
+                            .objects()
+                            .mapToInt(o -> objIds.get(objNames.get(o)))
+                            .sorted()
+                            .toArray();
+                    writeVarInt(out, ids.length);
+                    int prev = 0;
+                    for (int id : ids) {
+                        writeVarInt(out, id - prev);
+                        prev = id;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write snapshot to " + output, e);
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value)
+            throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static void writeString(DataOutputStream out, String s)
+            throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a snapshot file via memory-mapped I/O.
+     */
+    static Snapshot read(Path input) {
+        return read(input, WINDOW_SIZE);
+    }
+
+    /**
+     * Reads a snapshot file via memory-mapped I/O.
+     *
+     * @param windowSize size of the file region mapped at a time.
+     */
+    static Snapshot read(Path input, int windowSize) {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            Reader in = new Reader(channel, windowSize);
+            if (in.readInt() != MAGIC) {
+                throw new AnalysisException(input + " is not a points-to set snapshot");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new AnalysisException("Unsupported snapshot version: " + version);
+            }
+            String[] objects = new String[in.readVarInt()];
+            for (int i = 0; i < objects.length; ++i) {
+                objects[i] = in.readString();
+            }
+            Map<String, int[]> pointsToSets = new LinkedHashMap<>();
+            int nCategories = in.readVarInt();
+            for (int c = 0; c < nCategories; ++c) {
+                in.readString(); // category description
+                int nPointers = in.readVarInt();
+                for (int p = 0; p < nPointers; ++p) {
+                    String pointer = in.readString();
+                    int[] ids = new int[in.readVarInt()];
+                    int prev = 0;
+                    for (int i = 0; i < ids.length; ++i) {
+                        prev += in.readVarInt();
+                        ids[i] = prev;
+                    }
+                    pointsToSets.put(pointer, ids);
+                }
+            }
+            return new Snapshot(objects, pointsToSets);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to read snapshot from " + input, e);
+        }
+    }
+
+    /**
+     * Content of a snapshot file.
+     */
+    static final class Snapshot {
+
+        private final String[] objects;
+
+        private final Map<String, int[]> pointsToSets;
+
+        private Map<String, Integer> objIds;
+
+        private Snapshot(String[] objects, Map<String, int[]> pointsToSets) {
+            this.objects = objects;
+            this.pointsToSets = pointsToSets;
+        }
+
+        /**
+         * @return the pointers in the snapshot, in file order.
+         */
+        Collection<String> getPointers() {
+            return pointsToSets.keySet();
+        }
+
+        /**
+         * @return the sorted object ids of given pointer's points-to set,
+         * or null if the snapshot does not contain the pointer.
+         */
+        int[] getPointsToSet(String pointer) {
+            return pointsToSets.get(pointer);
+        }
+
+        /**
+         * @return the sorted object ids of given points-to set,
+         * or null if it contains an object that is absent in the snapshot.
+         */
+        int[] getIds(Collection<CSObj> objs) {
+            if (objIds == null) {
+                objIds = new HashMap<>(objects.length * 2);
+                for (int i = 0; i < objects.length; ++i) {
+                    objIds.put(objects[i], i);
+                }
+            }
+            int[] ids = new int[objs.size()];
+            int i = 0;
+            for (CSObj obj : objs) {
+                Integer id = objIds.get(obj.toString());
+                if (id == null) {
+                    return null;
+                }
+                ids[i++] = id;
+            }
+            Arrays.sort(ids);
+            return ids;
+        }
+
+        /**
+         * @return string representation of given object ids,
+         * which is the same as that of the text format.
+         */
+        String toString(int[] ids) {
+            StringJoiner joiner = new StringJoiner(", ", "[", "]");
+            for (int id : ids) {
+                joiner.add(objects[id]);
+            }
+            return joiner.toString();
+        }
+    }
+
+    /**
+     * Reads a file through a sliding memory-mapped window, so that files
+     * larger than a single mapping can be read.
+     */
+    private static final class Reader {
+
+        private final FileChannel channel;
+
+        private final long size;
+
+        private final int windowSize;
+
+        /**
+         * File position of the start of {@link #buffer}.
+         */
+        private long base;
+
+        private MappedByteBuffer buffer;
+
+        private Reader(FileChannel channel, int windowSize) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.windowSize = windowSize;
+            map(0, 0);
+        }
+
+        private void map(long position, int required) throws IOException {
+            long length = Math.min(Math.max(windowSize, required), size - position);
+            if (length < required) {
+                throw new EOFException("Unexpected end of snapshot");
+            }
+            base = position;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+
+        private void ensure(int n) throws IOException {
+            if (buffer.remaining() < n) {
+                map(base + buffer.position(), n);
+            }
+        }
+
+        private int readInt() throws IOException {
+            ensure(4);
+            return buffer.getInt();
+        }
+
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                ensure(1);
+                byte b = buffer.get();
+                value |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        private String readString() throws IOException {
+            int length = readVarInt();
+            ensure(length);
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -26,11 +26,15 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.selector.SelectiveSelector;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Streams;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -40,11 +44,15 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 
@@ -69,6 +77,18 @@ public class ResultProcessor {
 
     private static final DecimalFormat formatter = new DecimalFormat("#,####");
 
+    /**
+     * Order of pointers in the dumped files, which is relied on by
+     * streaming comparison.
+     */
+    private static final Comparator<Pointer> POINTER_ORDER =
+            Comparator.comparing(Pointer::toString);
+
+    /**
+     * Default number of mismatches reported by streaming comparison.
+     */
+    private static final int DEFAULT_MAX_MISMATCHES = 100;
+
     public static void process(AnalysisOptions options,
                                PointerAnalysisResult result) {
         printStatistics(result);
@@ -78,8 +98,28 @@ public class ResultProcessor {
         }
         String file = options.getString("file");
         switch (action) {
-            case "dump" -> dumpPointsToSet(result, file);
-            case "compare" -> comparePointsToSet(result, file);
+            case "dump" -> {
+                String format = options.getString("format");
+                if (format == null || format.equals("text")) {
+                    dumpPointsToSet(result, file);
+                } else if (format.equals("binary")) {
+                    dumpSnapshot(result, file);
+                } else {
+                    throw new ConfigException("Unknown dump format: " + format);
+                }
+            }
+            case "compare" -> {
+                if (PointsToSetSnapshot.isSnapshot(Path.of(file))) {
+                    compareSnapshot(result, file);
+                } else if (options.getBooleanOrDefault("streaming-compare", false)) {
+                    int limit = options.get("max-mismatches") != null ?
+                            options.getInt("max-mismatches") :
+                            DEFAULT_MAX_MISMATCHES;
+                    streamComparePointsToSet(result, file, limit);
+                } else {
+                    comparePointsToSet(result, file);
+                }
+            }
         }
     }
 
@@ -111,6 +151,11 @@ public class ResultProcessor {
                 format(reachableInsens), format(reachableSens));
         System.out.printf("%-30s%s (insens) / %s (sens)%n", "#call graph edges:",
                 format(callEdgeInsens), format(callEdgeSens));
+        if (result.getKeys().contains(SelectiveSelector.CS_METHODS)) {
+            Set<JMethod> csMethods = result.getResult(SelectiveSelector.CS_METHODS);
+            System.out.printf("%-30s%s / %s (insens)%n", "#context-sensitive methods:",
+                    format(csMethods.size()), format(reachableInsens));
+        }
         System.out.println("----------------------------------------");
     }
 
@@ -143,11 +188,61 @@ public class ResultProcessor {
     private static void dumpPointers(PrintStream out, Collection<? extends Pointer> pointers, String desc) {
         out.println(HEADER + desc);
         pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
+                .sorted(POINTER_ORDER)
                 .forEach(p -> out.println(p + SEP + toString(p.getPointsToSet())));
         out.println();
     }
 
+    private static Map<String, Collection<? extends Pointer>> getPointers(
+            PointerAnalysisResult result) {
+        Map<String, Collection<? extends Pointer>> pointers = new LinkedHashMap<>();
+        pointers.put("variables", result.getCSVars());
+        pointers.put("static fields", result.getStaticFields());
+        pointers.put("instance fields", result.getInstanceFields());
+        pointers.put("array indexes", result.getArrayIndexes());
+        return pointers;
+    }
+
+    private static void dumpSnapshot(PointerAnalysisResult result, String output) {
+        if (output == null) {
+            throw new ConfigException("Binary dump requires an output file");
+        }
+        logger.info("Dumping points-to set snapshot to {} ...", output);
+        PointsToSetSnapshot.write(getPointers(result), Path.of(output));
+    }
+
+    private static void compareSnapshot(PointerAnalysisResult result, String input) {
+        logger.info("Comparing points-to set with snapshot {} ...", input);
+        var snapshot = PointsToSetSnapshot.read(Path.of(input));
+        Set<String> given = new HashSet<>();
+        List<String> mismatches = new ArrayList<>();
+        getPointers(result).values().forEach(pointers -> pointers.stream()
+                .sorted(POINTER_ORDER)
+                .forEach(pointer -> {
+                    String pointerStr = pointer.toString();
+                    given.add(pointerStr);
+                    PointsToSet pts = pointer.getPointsToSet();
+                    int[] expected = snapshot.getPointsToSet(pointerStr);
+                    int[] actual = snapshot.getIds(pts.getObjects());
+                    if (expected == null || !Arrays.equals(expected, actual)) {
+                        mismatches.add(String.format("%s, expected: %s, given: %s",
+                                pointerStr,
+                                expected == null ? null : snapshot.toString(expected),
+                                toString(pts)));
+                    }
+                }));
+        snapshot.getPointers()
+                .stream()
+                .filter(Predicate.not(given::contains))
+                .forEach(pointerStr -> mismatches.add(String.format(
+                        "%s, expected: %s, given: null", pointerStr,
+                        snapshot.toString(snapshot.getPointsToSet(pointerStr)))));
+        if (!mismatches.isEmpty()) {
+            throw new AnalysisException("Mismatches of points-to set\n" +
+                    String.join("\n", mismatches));
+        }
+    }
+
     private static void comparePointsToSet(PointerAnalysisResult result, String input) {
         logger.info("Comparing points-to set with {} ...", input);
         var inputs = readPointsToSets(input);
@@ -179,6 +274,101 @@ public class ResultProcessor {
         }
     }
 
+    /**
+     * Compares points-to sets with the input file without loading either
+     * side fully into memory. Each pointer category is compared on its own
+     * thread by merge-joining the (sorted) section of the input file with
+     * the pointers of the result sorted in the same order, and at most
+     * {@code limit} mismatches are reported.
+     */
+    private static void streamComparePointsToSet(
+            PointerAnalysisResult result, String input, int limit) {
+        logger.info("Comparing points-to set with {} (streaming) ...", input);
+        Path path = Path.of(input);
+        List<String> mismatches = getPointers(result).entrySet()
+                .parallelStream()
+                .map(e -> compareCategory(path, e.getKey(), e.getValue(), limit))
+                .flatMap(List::stream)
+                .limit(limit)
+                .toList();
+        if (!mismatches.isEmpty()) {
+            throw new AnalysisException("Mismatches of points-to set (first " +
+                    limit + " at most)\n" + String.join("\n", mismatches));
+        }
+    }
+
+    private static List<String> compareCategory(
+            Path input, String desc, Collection<? extends Pointer> pointers,
+            int limit) {
+        Iterator<? extends Pointer> givenIter = pointers.stream()
+                .sorted(POINTER_ORDER)
+                .iterator();
+        List<String> mismatches = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(input)) {
+            // skip to the section of this category
+            String header = HEADER + desc;
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && !line.equals(header));
+            boolean hasSection = line != null;
+            Pointer given = next(givenIter);
+            String givenPtr = given == null ? null : given.toString();
+            String expected = hasSection ? nextEntry(reader) : null;
+            while ((given != null || expected != null) &&
+                    mismatches.size() < limit) {
+                int sep = expected == null ? -1 : expected.indexOf(SEP);
+                String expectedPtr = expected == null ? null :
+                        expected.substring(0, sep);
+                int cmp = given == null ? 1 :
+                        expectedPtr == null ? -1 :
+                                givenPtr.compareTo(expectedPtr);
+                if (cmp < 0) {
+                    mismatches.add(String.format("%s, expected: null, given: %s",
+                            givenPtr, toString(given.getPointsToSet())));
+                    given = next(givenIter);
+                    givenPtr = given == null ? null : given.toString();
+                } else if (cmp > 0) {
+                    mismatches.add(String.format("%s, expected: %s, given: null",
+                            expectedPtr, expected.substring(sep + SEP.length())));
+                    expected = nextEntry(reader);
+                } else {
+                    String givenPts = toString(given.getPointsToSet());
+                    String expectedPts = expected.substring(sep + SEP.length());
+                    if (!givenPts.equals(expectedPts)) {
+                        mismatches.add(String.format("%s, expected: %s, given: %s",
+                                expectedPtr, expectedPts, givenPts));
+                    }
+                    given = next(givenIter);
+                    givenPtr = given == null ? null : given.toString();
+                    expected = nextEntry(reader);
+                }
+            }
+        } catch (IOException e) {
+            throw new AnalysisException(
+                    "Failed to read points-to set from " + input, e);
+        }
+        return mismatches;
+    }
+
+    private static <T> T next(Iterator<T> iter) {
+        return iter.hasNext() ? iter.next() : null;
+    }
+
+    /**
+     * @return the next "pointer -> points-to set" line in current section,
+     * or null if the section ends.
+     */
+    private static String nextEntry(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null && !line.isEmpty()) {
+            if (line.contains(SEP)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
     private static Map<String, String> readPointsToSets(String input) {
         try {
             Map<String, String> result = new LinkedHashMap<>();
@@ -196,7 +386,7 @@ public class ResultProcessor {
     private static void addPointers(Map<String, Pointer> map,
                                     Collection<? extends Pointer> pointers) {
         pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
+                .sorted(POINTER_ORDER)
                 .forEach(p -> map.put(p.toString(), p));
     }
 
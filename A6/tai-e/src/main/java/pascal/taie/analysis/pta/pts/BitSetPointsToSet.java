@@ -0,0 +1,150 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.SparseBitSet;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set backed by a {@link SparseBitSet}, which stores
+ * the indexes of the objects given by an object indexer.
+ * Union and difference of two such sets are word-wise operations.
+ */
+class BitSetPointsToSet implements PointsToSet {
+
+    private final Indexer<CSObj> indexer;
+
+    private final SparseBitSet bits;
+
+    BitSetPointsToSet(Indexer<CSObj> indexer) {
+        this(indexer, new SparseBitSet());
+    }
+
+    private BitSetPointsToSet(Indexer<CSObj> indexer, SparseBitSet bits) {
+        this.indexer = indexer;
+        this.bits = bits;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        return bits.set(indexer.getIndex(obj));
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        if (pts instanceof BitSetPointsToSet other) {
+            return bits.or(other.bits);
+        } else {
+            boolean changed = false;
+            for (CSObj obj : pts) {
+                changed |= addObject(obj);
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public PointsToSet addAllDiff(PointsToSet pts) {
+        if (pts instanceof BitSetPointsToSet other) {
+            return new BitSetPointsToSet(indexer, bits.orDiff(other.bits));
+        } else {
+            return PointsToSet.super.addAllDiff(pts);
+        }
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        return bits.get(indexer.getIndex(obj));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return bits.cardinality();
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return new ObjectSetView();
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return getObjects().stream();
+    }
+
+    @Override
+    public String toString() {
+        return getObjects().toString();
+    }
+
+    /**
+     * Unmodifiable view of the objects in this points-to set.
+     */
+    private class ObjectSetView extends AbstractSet<CSObj> {
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof CSObj obj && BitSetPointsToSet.this.contains(obj);
+        }
+
+        @Override
+        public int size() {
+            return bits.cardinality();
+        }
+
+        @Override
+        public Iterator<CSObj> iterator() {
+            return new Iterator<>() {
+
+                private int next = bits.isEmpty() ? -1 : bits.nextSetBit(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public CSObj next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    CSObj obj = indexer.getObject(next);
+                    next = bits.nextSetBit(next + 1);
+                    return obj;
+                }
+            };
+        }
+    }
+}
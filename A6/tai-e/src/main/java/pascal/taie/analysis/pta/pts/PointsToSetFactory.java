@@ -23,20 +23,56 @@
 package pascal.taie.analysis.pta.pts;
 
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.Indexer;
 import pascal.taie.util.collection.Sets;
 
-import java.util.Set;
 import java.util.function.Supplier;
 
 /**
- * Provides static factory methods for {@link PointsToSet}.
+ * Provides static factory methods for {@link PointsToSet}, which make
+ * hash-based sets, and factories which make the points-to sets of a
+ * selected backend. A factory is owned by the analysis that selects its
+ * backend, so that the analyses in the same JVM do not affect each other.
  */
 public class PointsToSetFactory {
 
-    private static final Supplier<Set<CSObj>> setFactory = Sets::newHybridSet;
+    private final Supplier<PointsToSet> setFactory;
+
+    /**
+     * @param backend    "hybrid" (default) for hash-based sets of objects,
+     *                   or "bitset" for bit sets of object indexes.
+     * @param objIndexer the indexer of context-sensitive objects,
+     *                   used by the "bitset" backend.
+     */
+    public PointsToSetFactory(String backend, Indexer<CSObj> objIndexer) {
+        if (backend == null || backend.equals("hybrid")) {
+            setFactory = PointsToSetFactory::make;
+        } else if (backend.equals("bitset")) {
+            setFactory = () -> new BitSetPointsToSet(objIndexer);
+        } else {
+            throw new ConfigException("Unknown points-to set backend: " + backend);
+        }
+    }
+
+    /**
+     * @return a new empty points-to set of the backend of this factory.
+     */
+    public PointsToSet makePointsToSet() {
+        return setFactory.get();
+    }
+
+    /**
+     * @return a new one-element points-to set of the backend of this factory.
+     */
+    public PointsToSet makePointsToSet(CSObj obj) {
+        PointsToSet set = makePointsToSet();
+        set.addObject(obj);
+        return set;
+    }
 
     public static PointsToSet make() {
-        return new DelegatePointsToSet(setFactory.get());
+        return new DelegatePointsToSet(Sets.newHybridSet());
     }
 
     /**
@@ -0,0 +1,187 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit.zipper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Selects precision-critical methods from the result of a
+ * context-insensitive pre-analysis, in the spirit of Zipper.
+ * <p>
+ * A method is considered precision-critical if it is reached from more
+ * than one caller (or receiver object), and objects flow through it,
+ * i.e., objects that come in via "this" or parameters go out via return
+ * values (directly, or wrapped in/unwrapped from fields). Merging such
+ * flows across callers is where context insensitivity loses precision;
+ * all other methods gain little from contexts.
+ */
+public class Zipper {
+
+    private static final Logger logger = LogManager.getLogger(Zipper.class);
+
+    private final PointerAnalysisResult pta;
+
+    /**
+     * Caches the non-static reference fields (including inherited ones)
+     * of each class.
+     */
+    private final Map<JClass, List<JField>> fields = Maps.newMap();
+
+    /**
+     * @param pta result of the context-insensitive pre-analysis.
+     */
+    public Zipper(PointerAnalysisResult pta) {
+        this.pta = pta;
+    }
+
+    /**
+     * @return the precision-critical methods, i.e., the methods that
+     * should be analyzed context-sensitively.
+     */
+    public Set<JMethod> selectPrecisionCriticalMethods() {
+        Set<JMethod> pcms = pta.getCallGraph()
+                .reachableMethods()
+                .filter(this::isPrecisionCritical)
+                .collect(Collectors.toUnmodifiableSet());
+        logPCMs(pcms);
+        return pcms;
+    }
+
+    private boolean isPrecisionCritical(JMethod method) {
+        if (method.isAbstract() || method.isNative()) {
+            return false;
+        }
+        IR ir = method.getIR();
+        Var thisVar = ir.getThis();
+        if (pta.getCallGraph().getCallersOf(method).size() <= 1 &&
+                (thisVar == null || pta.getPointsToSet(thisVar).size() <= 1)) {
+            // only one calling context, thus nothing to be merged
+            return false;
+        }
+        List<Var> ins = new ArrayList<>(ir.getParams());
+        if (thisVar != null) {
+            ins.add(thisVar);
+        }
+        Set<Obj> inObjs = pointsToSetOf(ins);
+        Set<Obj> outObjs = pointsToSetOf(ir.getReturnVars());
+        if (outObjs.isEmpty() && thisVar == null) {
+            return false;
+        }
+        // direct flow: incoming objects are returned as they are
+        if (intersects(inObjs, outObjs)) {
+            return true;
+        }
+        // unwrapped flow: objects loaded from fields of incoming objects
+        // are returned (e.g., getters)
+        for (Var in : ins) {
+            for (JField field : getFields(in.getType())) {
+                if (intersects(pta.getPointsToSet(in, field), outObjs)) {
+                    return true;
+                }
+            }
+        }
+        // wrapped flow: incoming objects are stored into fields of
+        // the receiver or of returned objects (e.g., setters and wrappers)
+        List<Var> outs = new ArrayList<>(ir.getReturnVars());
+        if (thisVar != null) {
+            outs.add(thisVar);
+        }
+        for (Var out : outs) {
+            for (JField field : getFields(out.getType())) {
+                if (intersects(pta.getPointsToSet(out, field), inObjs)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private Set<Obj> pointsToSetOf(Collection<Var> vars) {
+        Set<Obj> objs = Sets.newHybridSet();
+        vars.forEach(v -> objs.addAll(pta.getPointsToSet(v)));
+        return objs;
+    }
+
+    private static boolean intersects(Set<Obj> s1, Set<Obj> s2) {
+        if (s1.size() > s2.size()) {
+            Set<Obj> tmp = s1;
+            s1 = s2;
+            s2 = tmp;
+        }
+        for (Obj o : s1) {
+            if (s2.contains(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<JField> getFields(Type type) {
+        if (!(type instanceof ClassType classType)) {
+            return List.of();
+        }
+        return fields.computeIfAbsent(classType.getJClass(), jclass -> {
+            List<JField> result = new ArrayList<>();
+            for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+                for (JField field : c.getDeclaredFields()) {
+                    if (!field.isStatic() &&
+                            field.getType() instanceof ReferenceType) {
+                        result.add(field);
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    private void logPCMs(Set<JMethod> pcms) {
+        logger.info("#precision-critical methods: {} / {} reachable",
+                pcms.size(), pta.getCallGraph().getNumberOfMethods());
+        logger.info("---------- Precision-critical methods: ----------");
+        pcms.stream()
+                .sorted(Comparator.comparing(JMethod::toString))
+                .forEach(logger::info);
+        logger.info("----------------------------------------");
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Sparse bit set of non-negative integers.
+ * <p>
+ * The bits are grouped into 64-bit words, and only non-zero words are
+ * stored, in two parallel arrays sorted by word index. This keeps small
+ * sets over a large universe compact, while union and difference of
+ * two sets are computed word by word by merging the sorted arrays.
+ */
+public class SparseBitSet {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
+
+    private static final int DEFAULT_CAPACITY = 2;
+
+    /**
+     * Indexes of the non-zero words, in ascending order.
+     */
+    private int[] keys;
+
+    /**
+     * Non-zero words, words[i] holds the bits of word keys[i].
+     */
+    private long[] words;
+
+    /**
+     * Number of used entries in {@link #keys} and {@link #words}.
+     */
+    private int size;
+
+    /**
+     * Number of set bits in this bit set.
+     */
+    private int cardinality;
+
+    public SparseBitSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    private SparseBitSet(int capacity) {
+        keys = new int[capacity];
+        words = new long[capacity];
+    }
+
+    /**
+     * Sets the given bit.
+     *
+     * @return true if this bit set changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean set(int bit) {
+        checkIndex(bit);
+        int key = bit >>> ADDRESS_BITS_PER_WORD;
+        long mask = 1L << bit;
+        int pos = Arrays.binarySearch(keys, 0, size, key);
+        if (pos >= 0) {
+            long old = words[pos];
+            if ((old & mask) != 0) {
+                return false;
+            }
+            words[pos] = old | mask;
+        } else {
+            insert(-(pos + 1), key, mask);
+        }
+        ++cardinality;
+        return true;
+    }
+
+    /**
+     * @return true if the given bit is set, otherwise false.
+     */
+    public boolean get(int bit) {
+        checkIndex(bit);
+        int pos = Arrays.binarySearch(keys, 0, size,
+                bit >>> ADDRESS_BITS_PER_WORD);
+        return pos >= 0 && (words[pos] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Sets all bits that are set in the other bit set.
+     *
+     * @return true if this bit set changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean or(SparseBitSet other) {
+        return orDiff(other, null);
+    }
+
+    /**
+     * Sets all bits that are set in the other bit set, and returns
+     * the bits that were newly set by this call, i.e.,
+     * {@code other AND-NOT this} computed before the union.
+     */
+    public SparseBitSet orDiff(SparseBitSet other) {
+        SparseBitSet diff = new SparseBitSet(Math.max(other.size, 1));
+        orDiff(other, diff);
+        return diff;
+    }
+
+    /**
+     * Merges other into this bit set. If diff is not null, the newly
+     * set words are appended to it (in ascending order of word index).
+     */
+    private boolean orDiff(SparseBitSet other, SparseBitSet diff) {
+        int missing = countMissingKeys(other);
+        int oldCardinality = cardinality;
+        if (missing == 0) {
+            // all words of other are present in this set, merge in place
+            for (int i = 0, j = 0; j < other.size; ++i) {
+                if (keys[i] == other.keys[j]) {
+                    long old = words[i];
+                    long added = other.words[j] & ~old;
+                    if (added != 0) {
+                        words[i] = old | added;
+                        cardinality += Long.bitCount(added);
+                        if (diff != null) {
+                            diff.append(keys[i], added);
+                        }
+                    }
+                    ++j;
+                }
+            }
+        } else {
+            int newSize = size + missing;
+            int[] newKeys = new int[newSize];
+            long[] newWords = new long[newSize];
+            int i = 0, j = 0, k = 0;
+            while (i < size || j < other.size) {
+                long added;
+                if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                    newKeys[k] = keys[i];
+                    newWords[k] = words[i];
+                    ++i;
+                    added = 0;
+                } else if (i == size || other.keys[j] < keys[i]) {
+                    newKeys[k] = other.keys[j];
+                    newWords[k] = other.words[j];
+                    added = other.words[j];
+                    ++j;
+                } else {
+                    added = other.words[j] & ~words[i];
+                    newKeys[k] = keys[i];
+                    newWords[k] = words[i] | added;
+                    ++i;
+                    ++j;
+                }
+                if (added != 0) {
+                    cardinality += Long.bitCount(added);
+                    if (diff != null) {
+                        diff.append(newKeys[k], added);
+                    }
+                }
+                ++k;
+            }
+            keys = newKeys;
+            words = newWords;
+            size = newSize;
+        }
+        return cardinality != oldCardinality;
+    }
+
+    /**
+     * @return a new bit set that contains the bits that are set in
+     * this bit set but not in the other one.
+     */
+    public SparseBitSet andNot(SparseBitSet other) {
+        SparseBitSet result = new SparseBitSet(Math.max(size, 1));
+        int j = 0;
+        for (int i = 0; i < size; ++i) {
+            int key = keys[i];
+            while (j < other.size && other.keys[j] < key) {
+                ++j;
+            }
+            long word = words[i];
+            if (j < other.size && other.keys[j] == key) {
+                word &= ~other.words[j];
+            }
+            if (word != 0) {
+                result.append(key, word);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the index of the first set bit that occurs on or after
+     * the given index, or -1 if there is no such bit.
+     */
+    public int nextSetBit(int fromIndex) {
+        checkIndex(fromIndex);
+        int key = fromIndex >>> ADDRESS_BITS_PER_WORD;
+        int pos = Arrays.binarySearch(keys, 0, size, key);
+        long word;
+        if (pos >= 0) {
+            word = words[pos] & (-1L << fromIndex);
+        } else {
+            pos = -(pos + 1);
+            word = pos < size ? words[pos] : 0;
+        }
+        while (word == 0) {
+            if (++pos >= size) {
+                return -1;
+            }
+            word = words[pos];
+        }
+        return keys[pos] * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Performs the given action for each set bit, in ascending order.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; ++i) {
+            int base = keys[i] * BITS_PER_WORD;
+            long word = words[i];
+            while (word != 0) {
+                action.accept(base + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * @return the number of set bits.
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public SparseBitSet copy() {
+        SparseBitSet copy = new SparseBitSet(Math.max(size, 1));
+        System.arraycopy(keys, 0, copy.keys, 0, size);
+        System.arraycopy(words, 0, copy.words, 0, size);
+        copy.size = size;
+        copy.cardinality = cardinality;
+        return copy;
+    }
+
+    /**
+     * @return the number of words of other whose index is absent in this set.
+     */
+    private int countMissingKeys(SparseBitSet other) {
+        int missing = 0;
+        int i = 0;
+        for (int j = 0; j < other.size; ++j) {
+            int key = other.keys[j];
+            while (i < size && keys[i] < key) {
+                ++i;
+            }
+            if (i == size || keys[i] != key) {
+                ++missing;
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Inserts a new word at given position.
+     */
+    private void insert(int pos, int key, long word) {
+        if (size == keys.length) {
+            int newCapacity = Math.max(DEFAULT_CAPACITY, size + (size >> 1));
+            keys = Arrays.copyOf(keys, newCapacity);
+            words = Arrays.copyOf(words, newCapacity);
+        }
+        System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+        System.arraycopy(words, pos, words, pos + 1, size - pos);
+        keys[pos] = key;
+        words[pos] = word;
+        ++size;
+    }
+
+    /**
+     * Appends a word whose index is greater than all existing ones.
+     */
+    private void append(int key, long word) {
+        insert(size, key, word);
+        cardinality += Long.bitCount(word);
+    }
+
+    private static void checkIndex(int bit) {
+        if (bit < 0) {
+            throw new IndexOutOfBoundsException("bit index < 0: " + bit);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SparseBitSet that = (SparseBitSet) o;
+        return size == that.size &&
+                Arrays.equals(keys, 0, size, that.keys, 0, size) &&
+                Arrays.equals(words, 0, size, that.words, 0, size);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int i = 0; i < size; ++i) {
+            h = 31 * h + keys[i];
+            h = 31 * h + Long.hashCode(words[i]);
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach(bit -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(bit);
+        });
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+import org.junit.Test;
+import pascal.taie.util.AnalysisException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class TrieContextTest {
+
+    private final ContextFactory<String> factory = new TrieContext.Factory<>();
+
+    private static List<Object> elementsOf(Context context) {
+        List<Object> elements = new ArrayList<>();
+        for (int i = 0; i < context.getLength(); ++i) {
+            elements.add(context.getElementAt(i));
+        }
+        return elements;
+    }
+
+    @Test
+    public void testInterning() {
+        Context c = factory.make("a", "b", "c");
+        assertSame(c, factory.make("a", "b", "c"));
+        assertSame(factory.getEmptyContext(), factory.make());
+        assertNotSame(c, factory.make("a", "b"));
+        assertNotSame(c, factory.make("b", "a", "c"));
+        assertEquals(List.of("a", "b", "c"), elementsOf(c));
+        assertEquals("[a, b, c]", c.toString());
+        assertEquals("[]", factory.getEmptyContext().toString());
+        // hash code is the same as the one of the list of elements
+        assertEquals(List.of("a", "b", "c").hashCode(), c.hashCode());
+        assertEquals(ListContext.make("a", "b", "c").hashCode(), c.hashCode());
+    }
+
+    @Test
+    public void testDifferentFactories() {
+        ContextFactory<String> other = new TrieContext.Factory<>();
+        Context c1 = factory.make("a", "b");
+        Context c2 = other.make("a", "b");
+        assertNotEquals(c1, c2);
+        assertNotEquals(((TrieContext<?>) c1).getId(),
+                ((TrieContext<?>) c2).getId());
+    }
+
+    @Test
+    public void testMakeLastK() {
+        Context c = factory.make("a", "b", "c");
+        assertSame(c, factory.makeLastK(c, 3));
+        assertSame(c, factory.makeLastK(c, 5));
+        assertSame(factory.make("b", "c"), factory.makeLastK(c, 2));
+        assertSame(factory.make("c"), factory.makeLastK(c, 1));
+        assertSame(factory.getEmptyContext(), factory.makeLastK(c, 0));
+    }
+
+    @Test
+    public void testAppend() {
+        Context empty = factory.getEmptyContext();
+        Context a = factory.append(empty, "a", 2);
+        assertSame(factory.make("a"), a);
+        Context ab = factory.append(a, "b", 2);
+        assertSame(factory.make("a", "b"), ab);
+        assertSame(factory.make("b", "c"), factory.append(ab, "c", 2));
+        assertSame(factory.make("c"), factory.append(ab, "c", 1));
+        assertSame(empty, factory.append(ab, "c", 0));
+        assertSame(factory.make("a", "b", "c"), factory.append(ab, "c", 3));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(1);
+        List<Context> contexts = new ArrayList<>();
+        contexts.add(factory.getEmptyContext());
+        for (int i = 0; i < 2000; ++i) {
+            Context c = contexts.get(random.nextInt(contexts.size()));
+            List<Object> elements = elementsOf(c);
+            Context result;
+            List<Object> expected;
+            if (random.nextBoolean()) {
+                String elem = Integer.toString(random.nextInt(4));
+                int limit = random.nextInt(5);
+                result = factory.append(c, elem, limit);
+                expected = new ArrayList<>(elements);
+                expected.add(elem);
+                expected = expected.subList(
+                        Math.max(0, expected.size() - limit), expected.size());
+            } else {
+                int k = random.nextInt(5);
+                result = factory.makeLastK(c, k);
+                expected = elements.subList(
+                        Math.max(0, elements.size() - k), elements.size());
+            }
+            assertEquals(expected, elementsOf(result));
+            assertSame(factory.make(expected.toArray(new String[0])), result);
+            contexts.add(result);
+        }
+    }
+
+    @Test(expected = AnalysisException.class)
+    public void testContextOfOtherKind() {
+        factory.makeLastK(ListContext.make("a"), 1);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ContextFactory;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.context.TrieContext;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.VoidType;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IndexBasedCSManagerTest {
+
+    private static final JClass CLASS = new JClass(null, "T");
+
+    private final CSManager csManager = new IndexBasedCSManager();
+
+    /**
+     * Method with given number of variables, whose IR is built without
+     * the world.
+     */
+    private static class MockMethod extends JMethod {
+
+        private final IR ir;
+
+        private MockMethod(String name, int varCount) {
+            super(CLASS, name, Set.of(), List.of(), VoidType.VOID, List.of(),
+                    AnnotationHolder.emptyHolder(), null, null);
+            List<Var> vars = new ArrayList<>();
+            for (int i = 0; i < varCount; ++i) {
+                vars.add(new Var(this, name + "v" + i, null, i));
+            }
+            ir = new DefaultIR(this, null, List.of(), Set.of(), vars,
+                    List.of(), List.of());
+        }
+
+        @Override
+        public IR getIR() {
+            return ir;
+        }
+
+        private Var getVar(int i) {
+            return ir.getVar(i);
+        }
+    }
+
+    @Test
+    public void testSameVarAndContext() {
+        MockMethod m = new MockMethod("m", 3);
+        Var v = m.getVar(1);
+        CSVar csVar = csManager.getCSVar(ListContext.make("a", "b"), v);
+        // equal contexts, but different objects
+        assertSame(csVar, csManager.getCSVar(ListContext.make("a", "b"), v));
+        assertNotSame(csVar, csManager.getCSVar(ListContext.make("a"), v));
+        assertNotSame(csVar, csManager.getCSVar(
+                ListContext.make("a", "b"), m.getVar(2)));
+        assertEquals(2, csManager.getCSVarsOf(v).size());
+    }
+
+    @Test
+    public void testVarsOfDifferentMethods() {
+        MockMethod m1 = new MockMethod("m1", 2);
+        MockMethod m2 = new MockMethod("m2", 2);
+        Context c = ListContext.make();
+        // variables with the same index in different methods
+        CSVar v1 = csManager.getCSVar(c, m1.getVar(0));
+        CSVar v2 = csManager.getCSVar(c, m2.getVar(0));
+        assertNotSame(v1, v2);
+        assertSame(m1.getVar(0), v1.getVar());
+        assertSame(m2.getVar(0), v2.getVar());
+        assertSame(v1, csManager.getCSVar(c, m1.getVar(0)));
+        assertSame(v2, csManager.getCSVar(c, m2.getVar(0)));
+    }
+
+    @Test
+    public void testTrieAndInternedContextsDoNotCollide() {
+        ContextFactory<String> factory = new TrieContext.Factory<>();
+        List<Context> contexts = new ArrayList<>();
+        for (int i = 0; i < 50; ++i) {
+            // trie contexts and interned contexts with the same elements
+            contexts.add(factory.make("e" + i));
+            contexts.add(ListContext.make("e" + i));
+        }
+        contexts.add(factory.getEmptyContext());
+        contexts.add(ListContext.make());
+        MockMethod m = new MockMethod("m", 1);
+        Var v = m.getVar(0);
+        Obj obj = new MockObj("test", "o", null);
+        Set<CSVar> csVars = Sets.newSet();
+        Set<CSObj> csObjs = Sets.newSet();
+        Set<CSMethod> csMethods = Sets.newSet();
+        for (Context c : contexts) {
+            CSVar csVar = csManager.getCSVar(c, v);
+            assertSame(c, csVar.getContext());
+            assertTrue(csVars.add(csVar));
+            CSObj csObj = csManager.getCSObj(c, obj);
+            assertSame(c, csObj.getContext());
+            assertTrue(csObjs.add(csObj));
+            CSMethod csMethod = csManager.getCSMethod(c, m);
+            assertSame(c, csMethod.getContext());
+            assertTrue(csMethods.add(csMethod));
+        }
+        for (Context c : contexts) {
+            assertSame(c, csManager.getCSVar(c, v).getContext());
+            assertSame(c, csManager.getCSObj(c, obj).getContext());
+        }
+        assertEquals(contexts.size(), csManager.getCSVarsOf(v).size());
+        assertEquals(contexts.size(), csManager.getObjects().size());
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.exp.Var;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PointerFlowGraphTest {
+
+    private final CSManager csManager = new MapBasedCSManager();
+
+    private final CSObj o1 = csManager.getCSObj(ListContext.make(),
+            new MockObj("test", "o1", null));
+
+    private final CSObj o2 = csManager.getCSObj(ListContext.make(),
+            new MockObj("test", "o2", null));
+
+    /**
+     * Points-to sets received by the propagator of the graph.
+     */
+    private final List<Object[]> propagated = new ArrayList<>();
+
+    private final PointerFlowGraph pfg = new PointerFlowGraph(true,
+            (pointer, pts) -> propagated.add(new Object[]{pointer, pts}));
+
+    private CSVar makePointer(int i) {
+        return csManager.getCSVar(ListContext.make(), new Var(null, "v" + i, null, i));
+    }
+
+    private CSVar[] makePointers(int n, CSObj... objs) {
+        CSVar[] pointers = new CSVar[n];
+        for (int i = 0; i < n; ++i) {
+            pointers[i] = makePointer(i);
+            for (CSObj obj : objs) {
+                pointers[i].getPointsToSet().addObject(obj);
+            }
+        }
+        return pointers;
+    }
+
+    @Test
+    public void testCollapseCycle() {
+        CSVar[] v = makePointers(4, o1);
+        pfg.addEdge(v[0], v[1]);
+        pfg.addEdge(v[1], v[2]);
+        pfg.addEdge(v[2], v[0]);
+        pfg.addEdge(v[2], v[3]);
+        pfg.checkCycle(v[2], v[0]);
+        Pointer rep = pfg.getRepresentative(v[0]);
+        assertSame(rep, pfg.getRepresentative(v[1]));
+        assertSame(rep, pfg.getRepresentative(v[2]));
+        assertSame(v[3], pfg.getRepresentative(v[3]));
+        assertSame(v[0].getPointsToSet(), v[1].getPointsToSet());
+        assertSame(v[0].getPointsToSet(), v[2].getPointsToSet());
+        assertEquals(Set.of(v[3]), pfg.getSuccsOf(v[1]));
+        assertEquals(Set.of(v[3]), pfg.getSuccsOf(rep));
+    }
+
+    @Test
+    public void testNoCycle() {
+        CSVar[] v = makePointers(3, o1);
+        pfg.addEdge(v[0], v[1]);
+        pfg.addEdge(v[1], v[2]);
+        pfg.checkCycle(v[0], v[1]);
+        pfg.checkCycle(v[1], v[2]);
+        for (CSVar p : v) {
+            assertSame(p, pfg.getRepresentative(p));
+        }
+    }
+
+    @Test
+    public void testDifferentPointsToSets() {
+        CSVar[] v = makePointers(2, o1);
+        v[1].getPointsToSet().addObject(o2);
+        pfg.addEdge(v[0], v[1]);
+        pfg.addEdge(v[1], v[0]);
+        pfg.checkCycle(v[0], v[1]);
+        assertNotSame(pfg.getRepresentative(v[0]), pfg.getRepresentative(v[1]));
+    }
+
+    @Test
+    public void testEmptyPointsToSets() {
+        CSVar[] v = makePointers(2);
+        pfg.addEdge(v[0], v[1]);
+        pfg.addEdge(v[1], v[0]);
+        pfg.checkCycle(v[0], v[1]);
+        assertNotSame(pfg.getRepresentative(v[0]), pfg.getRepresentative(v[1]));
+    }
+
+    @Test
+    public void testEdgesAreRedirected() {
+        CSVar[] v = makePointers(5, o1);
+        pfg.addEdge(v[3], v[1]);
+        pfg.addEdge(v[0], v[1]);
+        pfg.addEdge(v[1], v[0]);
+        pfg.addEdge(v[1], v[4]);
+        pfg.checkCycle(v[0], v[1]);
+        Pointer rep = pfg.getRepresentative(v[1]);
+        assertSame(rep, pfg.getRepresentative(v[0]));
+        assertEquals(Set.of(rep), pfg.getSuccsOf(v[3]));
+        assertEquals(Set.of(v[4]), pfg.getSuccsOf(v[0]));
+        // edges inside the cycle and duplicate edges are not added
+        assertFalse(pfg.addEdge(v[0], v[1]));
+        assertFalse(pfg.addEdge(v[3], v[0]));
+        assertTrue(pfg.addEdge(v[2], v[1]));
+        assertEquals(Set.of(rep), pfg.getSuccsOf(v[2]));
+    }
+
+    @Test
+    public void testCollapseNestedCycles() {
+        CSVar[] v = makePointers(4, o1);
+        // cycle v1 <-> v2 is collapsed first, then it joins v0 and v3
+        pfg.addEdge(v[1], v[2]);
+        pfg.addEdge(v[2], v[1]);
+        pfg.checkCycle(v[1], v[2]);
+        pfg.addEdge(v[0], v[1]);
+        pfg.addEdge(v[2], v[3]);
+        pfg.addEdge(v[3], v[0]);
+        pfg.checkCycle(v[3], v[0]);
+        Pointer rep = pfg.getRepresentative(v[0]);
+        for (CSVar p : v) {
+            assertSame(rep, pfg.getRepresentative(p));
+            assertSame(rep.getPointsToSet(), p.getPointsToSet());
+            assertTrue(pfg.getSuccsOf(p).isEmpty());
+        }
+    }
+
+    @Test
+    public void testObjectsArePropagatedAfterCollapse() {
+        CSVar[] v = makePointers(4, o1);
+        v[2].getPointsToSet().addObject(o2);
+        pfg.addEdge(v[0], v[1]);
+        pfg.addEdge(v[1], v[2]);
+        pfg.addEdge(v[2], v[0]);
+        pfg.addEdge(v[2], v[3]);
+        pfg.checkCycle(v[0], v[1]);
+        // the source of the checked edge represents the cycle
+        Pointer rep = pfg.getRepresentative(v[2]);
+        assertSame(v[0], rep);
+        assertSame(rep, pfg.getRepresentative(v[1]));
+        // the objects of v2 are sent to the representative
+        boolean found = false;
+        for (Object[] entry : propagated) {
+            if (entry[0] == rep && ((PointsToSet) entry[1]).contains(o2)) {
+                found = true;
+            }
+        }
+        assertTrue(found);
+        // the successor of v2 receives the objects of the representative
+        found = false;
+        for (Object[] entry : propagated) {
+            if (entry[0] == v[3] && ((PointsToSet) entry[1]).contains(o1)) {
+                found = true;
+            }
+        }
+        assertTrue(found);
+    }
+
+    @Test
+    public void testWithoutCollapsing() {
+        PointerFlowGraph graph = new PointerFlowGraph();
+        CSVar v0 = makePointer(0);
+        CSVar v1 = makePointer(1);
+        v0.getPointsToSet().addObject(o1);
+        v1.getPointsToSet().addObject(o1);
+        graph.addEdge(v0, v1);
+        graph.addEdge(v1, v0);
+        graph.checkCycle(v0, v1);
+        assertSame(v0, graph.getRepresentative(v0));
+        assertEquals(Set.of(v1), graph.getSuccsOf(v0));
+    }
+}
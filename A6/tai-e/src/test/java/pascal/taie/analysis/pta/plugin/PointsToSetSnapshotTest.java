@@ -0,0 +1,136 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.plugin;
+
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.ir.exp.Var;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PointsToSetSnapshotTest {
+
+    private final CSManager csManager = new MapBasedCSManager();
+
+    private final Random random = new Random(1);
+
+    /**
+     * Makes objects whose names have multibyte characters, and one
+     * of which has a name longer than the windows used in the tests.
+     */
+    private List<CSObj> makeObjects(int n) {
+        List<CSObj> objs = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            String name = i == 0 ? "o".repeat(300) : "oé" + i;
+            objs.add(csManager.getCSObj(ListContext.make(),
+                    new MockObj("test", name, null)));
+        }
+        return objs;
+    }
+
+    private List<CSVar> makePointers(String prefix, int n, List<CSObj> objs) {
+        List<CSVar> pointers = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            CSVar p = csManager.getCSVar(ListContext.make(),
+                    new Var(null, prefix + i, null, i));
+            // some pointers have empty points-to sets
+            int size = random.nextInt(objs.size() + 1) / (i % 3 + 1);
+            for (int j = 0; j < size; ++j) {
+                p.getPointsToSet().addObject(objs.get(random.nextInt(objs.size())));
+            }
+            pointers.add(p);
+        }
+        return pointers;
+    }
+
+    @Test
+    public void testRoundTripAcrossWindows() throws IOException {
+        List<CSObj> objs = makeObjects(200);
+        Map<String, Collection<? extends Pointer>> categories = new LinkedHashMap<>();
+        categories.put("variables", makePointers("v", 300, objs));
+        categories.put("empty", List.of());
+        categories.put("more variables", makePointers("w", 100, objs));
+        Path file = Files.createTempFile("pts", ".bin");
+        try {
+            PointsToSetSnapshot.write(categories, file);
+            checkSnapshot(file, categories);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void checkSnapshot(
+            Path file, Map<String, Collection<? extends Pointer>> categories) {
+        assertTrue(PointsToSetSnapshot.isSnapshot(file));
+        // small windows, so that integers and strings cross window boundaries
+        for (int windowSize : new int[]{1, 3, 7, 64, 1 << 26}) {
+            var snapshot = PointsToSetSnapshot.read(file, windowSize);
+            assertEquals(400, snapshot.getPointers().size());
+            for (var pointers : categories.values()) {
+                for (Pointer p : pointers) {
+                    int[] ids = snapshot.getPointsToSet(p.toString());
+                    assertArrayEquals(snapshot.getIds(p.getPointsToSet().getObjects()), ids);
+                    assertEquals(p.getPointsToSet().getObjects().stream()
+                                    .map(Object::toString)
+                                    .sorted()
+                                    .toList()
+                                    .toString(),
+                            snapshot.toString(ids));
+                }
+            }
+            assertNull(snapshot.getPointsToSet("absent"));
+        }
+    }
+
+    @Test
+    public void testNotSnapshot() throws IOException {
+        Path file = Files.createTempFile("pts", ".txt");
+        try {
+            Files.writeString(file, "variables\n");
+            assertFalse(PointsToSetSnapshot.isSnapshot(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.pts;
+
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BitSetPointsToSetTest {
+
+    private final CSManager csManager = new MapBasedCSManager();
+
+    /**
+     * Objects whose indexes cross several 64-bit words.
+     */
+    private final List<CSObj> objs = new ArrayList<>();
+
+    public BitSetPointsToSetTest() {
+        for (int i = 0; i < 300; ++i) {
+            objs.add(csManager.getCSObj(ListContext.make(),
+                    new MockObj("test", "o" + i, null)));
+        }
+    }
+
+    private PointsToSet newBitSet() {
+        return new BitSetPointsToSet(csManager.getObjectIndexer());
+    }
+
+    private static PointsToSet newHybridSet() {
+        return new DelegatePointsToSet(Sets.newHybridSet());
+    }
+
+    @Test
+    public void testAddAtWordBoundaries() {
+        PointsToSet pts = newBitSet();
+        for (int i : new int[]{0, 63, 64, 127, 128, 255, 256}) {
+            CSObj obj = objs.get(i);
+            assertFalse(pts.contains(obj));
+            assertTrue(pts.addObject(obj));
+            assertTrue(pts.contains(obj));
+            assertFalse(pts.addObject(obj));
+        }
+        assertEquals(7, pts.size());
+        assertFalse(pts.contains(objs.get(1)));
+        assertFalse(pts.contains(objs.get(65)));
+    }
+
+    @Test
+    public void testAddAllDiff() {
+        PointsToSet pts = newBitSet();
+        pts.addObject(objs.get(0));
+        pts.addObject(objs.get(64));
+        PointsToSet other = newBitSet();
+        for (int i : new int[]{0, 63, 64, 65, 128}) {
+            other.addObject(objs.get(i));
+        }
+        PointsToSet diff = pts.addAllDiff(other);
+        assertEquals(3, diff.size());
+        assertTrue(diff.contains(objs.get(63)));
+        assertTrue(diff.contains(objs.get(65)));
+        assertTrue(diff.contains(objs.get(128)));
+        assertFalse(diff.contains(objs.get(0)));
+        assertEquals(other.getObjects(), pts.getObjects());
+        assertTrue(pts.addAllDiff(other).isEmpty());
+    }
+
+    @Test
+    public void testEquivalenceWithHybridSet() {
+        Random random = new Random(0);
+        for (int round = 0; round < 100; ++round) {
+            PointsToSet bits = newBitSet(), hybrid = newHybridSet();
+            PointsToSet bitsOther = newBitSet(), hybridOther = newHybridSet();
+            for (int i = random.nextInt(80); i > 0; --i) {
+                CSObj obj = objs.get(random.nextInt(objs.size()));
+                assertEquals(hybrid.addObject(obj), bits.addObject(obj));
+            }
+            for (int i = random.nextInt(80); i > 0; --i) {
+                CSObj obj = objs.get(random.nextInt(objs.size()));
+                bitsOther.addObject(obj);
+                hybridOther.addObject(obj);
+            }
+            assertEquals(hybrid.getObjects(), bits.getObjects());
+            PointsToSet hybridDiff = hybrid.addAllDiff(hybridOther);
+            PointsToSet bitsDiff = bits.addAllDiff(bitsOther);
+            assertEquals(hybridDiff.getObjects(), bitsDiff.getObjects());
+            assertEquals(hybrid.getObjects(), bits.getObjects());
+            assertEquals(hybrid.size(), bits.size());
+            // addAll from the other backend
+            PointsToSet extra = newHybridSet();
+            extra.addObject(objs.get(random.nextInt(objs.size())));
+            assertEquals(hybrid.addAll(extra), bits.addAll(extra));
+            assertEquals(hybrid.getObjects(), bits.getObjects());
+            for (CSObj obj : objs) {
+                assertEquals(hybrid.contains(obj), bits.contains(obj));
+            }
+        }
+    }
+
+    @Test
+    public void testBackendsOfManagersAreIndependent() {
+        CSManager bitsManager = new MapBasedCSManager("bitset");
+        CSManager hybridManager = new MapBasedCSManager("hybrid");
+        assertTrue(bitsManager.getPointsToSetFactory()
+                .makePointsToSet() instanceof BitSetPointsToSet);
+        assertTrue(hybridManager.getPointsToSetFactory()
+                .makePointsToSet() instanceof DelegatePointsToSet);
+        // the first manager is not affected by the second one
+        assertTrue(bitsManager.getPointsToSetFactory()
+                .makePointsToSet() instanceof BitSetPointsToSet);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.util.collection;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LongObjectHashMapTest {
+
+    /**
+     * Keys whose high or low halves are extreme values, as the keys of
+     * the tables of context-sensitive elements are pairs of integers.
+     */
+    private static final long[] SPECIAL_KEYS = {
+            0L, 1L, -1L, Long.MIN_VALUE, Long.MAX_VALUE,
+            1L << 32, (1L << 32) | 1, 0xFFFFFFFFL, -1L << 32,
+            ((long) Integer.MIN_VALUE << 32) | Integer.MAX_VALUE,
+    };
+
+    @Test
+    public void testPutAndGet() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        assertTrue(map.isEmpty());
+        for (long key : SPECIAL_KEYS) {
+            assertNull(map.get(key));
+            assertNull(map.put(key, Long.toString(key)));
+        }
+        assertEquals(SPECIAL_KEYS.length, map.size());
+        for (long key : SPECIAL_KEYS) {
+            assertEquals(Long.toString(key), map.get(key));
+        }
+        assertEquals("0", map.put(0L, "zero"));
+        assertEquals("zero", map.get(0L));
+        assertEquals(SPECIAL_KEYS.length, map.size());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullValue() {
+        new LongObjectHashMap<String>().put(1L, null);
+    }
+
+    @Test
+    public void testComputeIfAbsent() {
+        LongObjectHashMap<Object> map = new LongObjectHashMap<>();
+        Object value = map.computeIfAbsent(42L, k -> new Object());
+        assertSame(value, map.computeIfAbsent(42L, k -> new Object()));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testResize() {
+        // small initial capacity forces several resizes
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>(1);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; ++i) {
+            // packed keys with few distinct high halves, as in the tables
+            long key = ((long) random.nextInt(8) << 32) | random.nextInt(5000);
+            long value = random.nextLong();
+            assertEquals(expected.put(key, value), map.put(key, value));
+        }
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        for (int i = 0; i < 1000; ++i) {
+            long key = random.nextLong();
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.util.collection;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SparseBitSetTest {
+
+    /**
+     * Bits around the boundaries of 64-bit words.
+     */
+    private static final int[] BOUNDARY_BITS = {
+            0, 1, 62, 63, 64, 65, 127, 128, 191, 192, 255, 256, 4095, 4096,
+            (1 << 20) - 1, 1 << 20, Integer.MAX_VALUE - 1, Integer.MAX_VALUE,
+    };
+
+    private static SparseBitSet of(int... bits) {
+        SparseBitSet set = new SparseBitSet();
+        for (int bit : bits) {
+            set.set(bit);
+        }
+        return set;
+    }
+
+    private static BitSet toBitSet(SparseBitSet set) {
+        BitSet result = new BitSet();
+        set.forEach(result::set);
+        return result;
+    }
+
+    private static List<Integer> toList(SparseBitSet set) {
+        List<Integer> result = new ArrayList<>();
+        set.forEach(result::add);
+        return result;
+    }
+
+    @Test
+    public void testSetAtWordBoundaries() {
+        SparseBitSet set = new SparseBitSet();
+        for (int bit : BOUNDARY_BITS) {
+            assertFalse(set.get(bit));
+            assertTrue(set.set(bit));
+            assertTrue(set.get(bit));
+            assertFalse(set.set(bit));
+        }
+        assertEquals(BOUNDARY_BITS.length, set.cardinality());
+        List<Integer> expected = new ArrayList<>();
+        for (int bit : BOUNDARY_BITS) {
+            expected.add(bit);
+        }
+        assertEquals(expected, toList(set));
+        assertFalse(set.get(2));
+        assertFalse(set.get(66));
+        assertFalse(set.get(129));
+    }
+
+    @Test
+    public void testSetInDescendingOrder() {
+        SparseBitSet set = new SparseBitSet();
+        for (int i = BOUNDARY_BITS.length - 1; i >= 0; --i) {
+            assertTrue(set.set(BOUNDARY_BITS[i]));
+        }
+        assertEquals(of(BOUNDARY_BITS), set);
+        assertEquals(of(BOUNDARY_BITS).hashCode(), set.hashCode());
+    }
+
+    @Test
+    public void testNextSetBit() {
+        SparseBitSet set = of(0, 63, 64, 200, 1000);
+        assertEquals(0, set.nextSetBit(0));
+        assertEquals(63, set.nextSetBit(1));
+        assertEquals(63, set.nextSetBit(63));
+        assertEquals(64, set.nextSetBit(64));
+        assertEquals(200, set.nextSetBit(65));
+        assertEquals(1000, set.nextSetBit(201));
+        assertEquals(-1, set.nextSetBit(1001));
+        assertEquals(-1, new SparseBitSet().nextSetBit(0));
+    }
+
+    @Test
+    public void testOr() {
+        SparseBitSet set = of(0, 63, 128);
+        // same words, no new bits
+        assertFalse(set.or(of(63, 128)));
+        // new bits in existing words, and new words before, between
+        // and after the existing ones
+        assertTrue(set.or(of(1, 64, 127, 129, 1 << 20)));
+        assertEquals(of(0, 1, 63, 64, 127, 128, 129, 1 << 20), set);
+        assertEquals(8, set.cardinality());
+        assertFalse(set.or(new SparseBitSet()));
+        SparseBitSet empty = new SparseBitSet();
+        assertTrue(empty.or(set));
+        assertEquals(set, empty);
+    }
+
+    @Test
+    public void testOrDiff() {
+        SparseBitSet set = of(0, 63, 128);
+        SparseBitSet diff = set.orDiff(of(0, 63, 64, 127, 128, 192));
+        assertEquals(of(64, 127, 192), diff);
+        assertEquals(3, diff.cardinality());
+        assertEquals(of(0, 63, 64, 127, 128, 192), set);
+        assertTrue(set.orDiff(of(0, 64, 192)).isEmpty());
+    }
+
+    @Test
+    public void testAndNot() {
+        SparseBitSet set = of(0, 63, 64, 127, 128, 256);
+        SparseBitSet diff = set.andNot(of(63, 64, 127, 255, 512));
+        assertEquals(of(0, 128, 256), diff);
+        assertEquals(3, diff.cardinality());
+        // andNot does not modify the operands
+        assertEquals(6, set.cardinality());
+        assertTrue(set.andNot(set).isEmpty());
+    }
+
+    @Test
+    public void testCopy() {
+        SparseBitSet set = of(1, 64, 1000);
+        SparseBitSet copy = set.copy();
+        assertEquals(set, copy);
+        copy.set(65);
+        assertFalse(set.get(65));
+        assertEquals(3, set.cardinality());
+        assertEquals(4, copy.cardinality());
+    }
+
+    @Test
+    public void testEquivalenceWithBitSet() {
+        Random random = new Random(0);
+        for (int round = 0; round < 200; ++round) {
+            int universe = 1 + random.nextInt(2000);
+            SparseBitSet a = new SparseBitSet(), b = new SparseBitSet();
+            BitSet ea = new BitSet(), eb = new BitSet();
+            for (int i = random.nextInt(100); i > 0; --i) {
+                int bit = random.nextInt(universe);
+                assertEquals(!ea.get(bit), a.set(bit));
+                ea.set(bit);
+            }
+            for (int i = random.nextInt(100); i > 0; --i) {
+                int bit = random.nextInt(universe);
+                b.set(bit);
+                eb.set(bit);
+            }
+            BitSet expectedAndNot = (BitSet) ea.clone();
+            expectedAndNot.andNot(eb);
+            assertEquals(expectedAndNot, toBitSet(a.andNot(b)));
+            BitSet expectedDiff = (BitSet) eb.clone();
+            expectedDiff.andNot(ea);
+            ea.or(eb);
+            SparseBitSet diff = a.copy().orDiff(b);
+            assertEquals(expectedDiff, toBitSet(diff));
+            assertEquals(expectedDiff.cardinality(), diff.cardinality());
+            assertEquals(!expectedDiff.isEmpty(), a.or(b));
+            assertEquals(ea, toBitSet(a));
+            assertEquals(ea.cardinality(), a.cardinality());
+        }
+    }
+}
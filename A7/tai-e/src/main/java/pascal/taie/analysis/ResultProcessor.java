@@ -25,6 +25,7 @@ package pascal.taie.analysis;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.graph.callgraph.CallGraph;
 import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.config.AnalysisConfig;
@@ -103,12 +104,25 @@ public class ResultProcessor extends ProgramAnalysis {
         if (groups.containsKey(false)) {
             processIntraResults(groups.get(false));
         }
+        logInternStatistics();
         if (getOptions().getBoolean("log-mismatches")) {
             mismatches.forEach(logger::info);
         }
         return mismatches;
     }
 
+    /**
+     * Logs the hit rate of the intern cache of constant propagation values.
+     */
+    private static void logInternStatistics() {
+        long hits = Value.getInternHits();
+        long lookups = hits + Value.getInternMisses();
+        if (lookups > 0) {
+            logger.info("Constant intern cache: {} lookups, hit rate {}%",
+                    lookups, String.format("%.2f", 100.0 * hits / lookups));
+        }
+    }
+
     private void setOutput() {
         String output = getOptions().getString("file");
         if (output != null) {
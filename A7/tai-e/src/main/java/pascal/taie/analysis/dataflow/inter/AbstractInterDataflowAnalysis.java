@@ -22,17 +22,26 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.CompactICFG;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
 
 /**
  * Provides common functionalities for {@link InterDataflowAnalysis} implementations.
@@ -45,10 +54,29 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
         extends ProgramAnalysis
         implements InterDataflowAnalysis<Node, Fact> {
 
+    private static final Logger logger = LogManager.getLogger(AbstractInterDataflowAnalysis.class);
+
+    /**
+     * Default maximum number of summaries of each method
+     * for the summary-based solver.
+     */
+    private static final int DEFAULT_MAX_SUMMARIES = 8;
+
     protected ICFG<Method, Node> icfg;
 
     protected InterSolver<Method, Node, Fact> solver;
 
+    private DemandSolver<Method, Node, Fact> demandSolver;
+
+    /**
+     * Whether {@link #icfg} has been obtained and {@link #initialize()}
+     * has been called, which happens once for both {@link #analyze()}
+     * and {@link #getInFactOnDemand}.
+     */
+    private boolean initialized;
+
+    private final DependencyGraph<Node> dependencies = new DependencyGraph<>();
+
     public AbstractInterDataflowAnalysis(AnalysisConfig config) {
         super(config);
     }
@@ -60,6 +88,17 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     protected void initialize() {
     }
 
+    /**
+     * Registers a dependency which is not represented by the control-flow
+     * edges of the ICFG, i.e., the solver will re-analyze target whenever
+     * the OUT fact of source changes. This is typically called in
+     * {@link #initialize()}. Each dependency should be registered only
+     * once, as duplicates are not removed.
+     */
+    protected void addDependency(Node source, Node target) {
+        dependencies.addEdge(source, target);
+    }
+
     /**
      * If the concrete analysis needs to perform some finishing work after
      * the solver finishes, then it can overwrite this method.
@@ -119,11 +158,90 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
 
     @Override
     public Object analyze() {
-        icfg = World.get().getResult(ICFGBuilder.ID);
-        initialize();
-        solver = new InterSolver<>(this, icfg);
+        prepare();
+        solver = makeSolver();
         DataflowResult<Node, Fact> result = solver.solve();
+        if (solver instanceof SummarySolver<Method, Node, Fact> summarySolver) {
+            logger.info("{} summaries, {} summary hits, {} summary misses",
+                    summarySolver.getSummaryCount(),
+                    summarySolver.getSummaryHits(),
+                    summarySolver.getSummaryMisses());
+        } else if (solver instanceof ParallelInterSolver<Method, Node, Fact> parallelSolver) {
+            logger.info("{} partitions, {} facts sent between partitions",
+                    parallelSolver.getPartitionCount(),
+                    parallelSolver.getMessageCount());
+        }
         finish();
         return result;
     }
+
+    /**
+     * Computes the IN fact of given node on demand, i.e., without analyzing
+     * the parts of the program which cannot reach the node. The computed
+     * facts are cached, so that this method can be called repeatedly
+     * (without calling {@link #analyze()}).
+     */
+    public Fact getInFactOnDemand(Node node) {
+        if (demandSolver == null) {
+            prepare();
+            demandSolver = new DemandSolver<>(this, icfg, dependencies);
+        }
+        return demandSolver.getInFact(node);
+    }
+
+    /**
+     * Obtains the ICFG and initializes this analysis, if they have not
+     * been done.
+     */
+    private void prepare() {
+        if (!initialized) {
+            icfg = getICFG();
+            initialize();
+            initialized = true;
+        }
+    }
+
+    /**
+     * @return the ICFG built by {@link ICFGBuilder}, or an ICFG which is
+     * built on demand as the solver explores it if option "lazy-icfg"
+     * is enabled. If option "compact-icfg" is enabled, the ICFG is
+     * converted to a {@link CompactICFG}.
+     */
+    @SuppressWarnings("unchecked")
+    private ICFG<Method, Node> getICFG() {
+        ICFG<Method, Node> graph;
+        if (getOptions().getBooleanOrDefault("lazy-icfg", false)) {
+            CallGraph<Stmt, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+            graph = (ICFG<Method, Node>) new LazyICFG(callGraph);
+        } else {
+            graph = World.get().getResult(ICFGBuilder.ID);
+        }
+        if (getOptions().getBooleanOrDefault("compact-icfg", false)) {
+            graph = new CompactICFG<>(graph);
+        }
+        return graph;
+    }
+
+    private InterSolver<Method, Node, Fact> makeSolver() {
+        if (getOptions().getBooleanOrDefault("summary", false)) {
+            int maxSummaries = getOptions().get("max-summaries") != null ?
+                    getOptions().getInt("max-summaries") : DEFAULT_MAX_SUMMARIES;
+            return new SummarySolver<>(this, icfg, dependencies, maxSummaries);
+        } else if (getOptions().getBooleanOrDefault("parallel", false)) {
+            int threads = getOptions().get("threads") != null ?
+                    getOptions().getInt("threads") :
+                    Runtime.getRuntime().availableProcessors();
+            if (threads <= 0) {
+                throw new ConfigException("Invalid number of threads: " + threads);
+            }
+            if (!dependencies.isEmpty()) {
+                throw new ConfigException("Option parallel does not support" +
+                        " extra dependency edges, e.g., the ones registered" +
+                        " when option alias-aware is enabled");
+            }
+            return new ParallelInterSolver<>(this, icfg, threads);
+        } else {
+            return new InterSolver<>(this, icfg, dependencies);
+        }
+    }
 }
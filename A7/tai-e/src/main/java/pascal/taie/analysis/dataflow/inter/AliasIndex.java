@@ -0,0 +1,153 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Index of the heap accesses of int values which may alias,
+ * built once from the result of pointer analysis. Building the index
+ * visits the nodes of the ICFG but not its edges, so that a
+ * {@link LazyICFG} still builds its edges on demand.
+ * <p>
+ * The index first maps each abstract object and field (or each abstract
+ * array object) to the stores which may write it, and then records,
+ * for each load, the stores which may write the location it reads.
+ * Thus each load only needs to examine its aliasing stores, and when
+ * the value written by a store changes, only the dependent loads need
+ * to be re-analyzed.
+ * <p>
+ * Aliasing array accesses are determined by their bases only,
+ * as whether their indexes may be equal depends on the constant
+ * propagation result.
+ */
+class AliasIndex {
+
+    /**
+     * Map from abstract object and field to the stores which may write it.
+     */
+    private final Map<Obj, MultiMap<JField, StoreField>> instanceStores = Maps.newMap();
+
+    private final MultiMap<JField, StoreField> staticStores = Maps.newMultiMap();
+
+    /**
+     * Map from abstract array object to the stores which may write it.
+     */
+    private final MultiMap<Obj, StoreArray> arrayStores = Maps.newMultiMap();
+
+    private final MultiMap<Stmt, Stmt> loadToStores = Maps.newMultiMap();
+
+    private final MultiMap<Stmt, Stmt> storeToLoads = Maps.newMultiMap();
+
+    AliasIndex(ICFG<?, Stmt> icfg, PointerAnalysisResult pta) {
+        // iterating a lazy ICFG would build all its edges
+        Set<Stmt> nodes = icfg instanceof LazyICFG lazyICFG ?
+                lazyICFG.getIndexedNodes() : icfg.getNodes();
+        for (Stmt stmt : nodes) {
+            if (stmt instanceof StoreField store
+                    && ConstantPropagation.canHoldInt(store.getRValue())) {
+                JField field = store.getFieldRef().resolve();
+                if (store.isStatic()) {
+                    staticStores.put(field, store);
+                } else {
+                    Var base = ((InstanceFieldAccess) store.getFieldAccess()).getBase();
+                    pta.getPointsToSet(base).forEach(obj -> instanceStores
+                            .computeIfAbsent(obj, __ -> Maps.newMultiMap())
+                            .put(field, store));
+                }
+            } else if (stmt instanceof StoreArray store
+                    && ConstantPropagation.canHoldInt(store.getRValue())) {
+                Var base = store.getArrayAccess().getBase();
+                pta.getPointsToSet(base).forEach(obj -> arrayStores.put(obj, store));
+            }
+        }
+        for (Stmt stmt : nodes) {
+            if (stmt instanceof LoadField load
+                    && ConstantPropagation.canHoldInt(load.getLValue())) {
+                JField field = load.getFieldRef().resolve();
+                if (load.isStatic()) {
+                    staticStores.get(field).forEach(store -> addAlias(load, store));
+                } else {
+                    Var base = ((InstanceFieldAccess) load.getFieldAccess()).getBase();
+                    for (Obj obj : pta.getPointsToSet(base)) {
+                        MultiMap<JField, StoreField> stores = instanceStores.get(obj);
+                        if (stores != null) {
+                            stores.get(field).forEach(store -> addAlias(load, store));
+                        }
+                    }
+                }
+            } else if (stmt instanceof LoadArray load
+                    && ConstantPropagation.canHoldInt(load.getLValue())) {
+                Var base = load.getArrayAccess().getBase();
+                for (Obj obj : pta.getPointsToSet(base)) {
+                    arrayStores.get(obj).forEach(store -> addAlias(load, store));
+                }
+            }
+        }
+    }
+
+    private void addAlias(Stmt load, Stmt store) {
+        loadToStores.put(load, store);
+        storeToLoads.put(store, load);
+    }
+
+    /**
+     * @return the stores which may write the location read by given load.
+     */
+    Set<Stmt> getAliasingStores(Stmt load) {
+        return loadToStores.get(load);
+    }
+
+    /**
+     * @return the loads which may read the location written by given store.
+     */
+    Set<Stmt> getDependentLoads(Stmt store) {
+        return storeToLoads.get(store);
+    }
+
+    /**
+     * Applies given action to every (store, load) pair that may alias.
+     */
+    void forEachAlias(BiConsumer<Stmt, Stmt> action) {
+        storeToLoads.forEach(action);
+    }
+}
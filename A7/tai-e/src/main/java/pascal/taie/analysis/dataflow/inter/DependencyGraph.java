@@ -0,0 +1,137 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Extra dependency edges between ICFG nodes, which are not represented
+ * by the control-flow edges of the ICFG. An edge from source to target
+ * means that target needs to be re-analyzed when the OUT fact of source
+ * changes, e.g., a load of a field depends on the stores which may write
+ * the field.
+ * <p>
+ * Nodes are numbered when they are first added, and the edges of each
+ * node are kept in growable int arrays in both directions, so that the
+ * graph costs a few ints per edge, and visiting the edges of a node
+ * allocates nothing.
+ *
+ * @param <Node> type of ICFG nodes
+ */
+class DependencyGraph<Node> {
+
+    private static final int[] EMPTY = {};
+
+    private final Map<Node, Integer> ids = new HashMap<>();
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    private int[][] succs = new int[16][];
+
+    private int[] succCounts = new int[16];
+
+    private int[][] preds = new int[16][];
+
+    private int[] predCounts = new int[16];
+
+    private int edgeCount;
+
+    /**
+     * Adds a dependency edge from source to target. This method does not
+     * check whether the edge is already in this graph, so the callers
+     * should not add the same edge twice; otherwise, the target would be
+     * visited twice by {@link #forEachSucc}, which is harmless but wasteful.
+     */
+    void addEdge(Node source, Node target) {
+        int s = getId(source), t = getId(target);
+        succs[s] = append(succs[s], succCounts[s]++, t);
+        preds[t] = append(preds[t], predCounts[t]++, s);
+        ++edgeCount;
+    }
+
+    /**
+     * Applies given action to the targets of the edges from given node.
+     */
+    void forEachSucc(Node node, Consumer<Node> action) {
+        Integer id = ids.get(node);
+        if (id != null) {
+            int[] targets = succs[id];
+            for (int i = 0; i < succCounts[id]; ++i) {
+                action.accept(nodes.get(targets[i]));
+            }
+        }
+    }
+
+    /**
+     * Applies given action to the sources of the edges to given node.
+     */
+    void forEachPred(Node node, Consumer<Node> action) {
+        Integer id = ids.get(node);
+        if (id != null) {
+            int[] sources = preds[id];
+            for (int i = 0; i < predCounts[id]; ++i) {
+                action.accept(nodes.get(sources[i]));
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return edgeCount == 0;
+    }
+
+    int getEdgeCount() {
+        return edgeCount;
+    }
+
+    private int getId(Node node) {
+        Integer id = ids.get(node);
+        if (id == null) {
+            id = nodes.size();
+            ids.put(node, id);
+            nodes.add(node);
+            if (id == succs.length) {
+                int length = id * 2;
+                succs = Arrays.copyOf(succs, length);
+                succCounts = Arrays.copyOf(succCounts, length);
+                preds = Arrays.copyOf(preds, length);
+                predCounts = Arrays.copyOf(predCounts, length);
+            }
+            succs[id] = EMPTY;
+            preds[id] = EMPTY;
+        }
+        return id;
+    }
+
+    private static int[] append(int[] array, int size, int element) {
+        if (size == array.length) {
+            array = Arrays.copyOf(array, Math.max(4, size * 2));
+        }
+        array[size] = element;
+        return array;
+    }
+}
@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
@@ -50,6 +51,12 @@ public class InterConstantPropagation extends
 
     private final ConstantPropagation cp;
 
+    /**
+     * Index of aliasing heap accesses, available if the option
+     * alias-aware is enabled.
+     */
+    private AliasIndex aliasIndex;
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
@@ -59,9 +66,24 @@ public class InterConstantPropagation extends
     protected void initialize() {
         String ptaId = getOptions().getString("pta");
         PointerAnalysisResult pta = World.get().getResult(ptaId);
+        if (getOptions().getBoolean("alias-aware")) {
+            aliasIndex = new AliasIndex(icfg, pta);
+            // a changed store must re-queue the loads it may affect
+            aliasIndex.forEachAlias(this::addDependency);
+        }
         // You can do initialization work here
     }
 
+    /**
+     * Answers whether given variable is constant at given statement,
+     * by analyzing only the part of the program relevant to the statement.
+     *
+     * @return the value of var in the IN fact of stmt.
+     */
+    public Value getValueOnDemand(Stmt stmt, Var var) {
+        return getInFactOnDemand(stmt).get(var);
+    }
+
     @Override
     public boolean isForward() {
         return cp.isForward();
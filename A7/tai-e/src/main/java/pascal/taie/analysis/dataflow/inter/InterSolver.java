@@ -23,11 +23,14 @@
 package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CompactICFG;
 import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
 import pascal.taie.util.collection.SetQueue;
 
 import java.util.Queue;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -41,14 +44,27 @@ class InterSolver<Method, Node, Fact> {
 
     private final ICFG<Method, Node> icfg;
 
+    /**
+     * Extra dependency edges registered by the analysis.
+     */
+    private final DependencyGraph<Node> dependencies;
+
+    /**
+     * The ICFG as a {@link CompactICFG} if it is, otherwise null.
+     */
+    private final CompactICFG<Method, Node> compactICFG;
+
     private DataflowResult<Node, Fact> result;
 
     private Queue<Node> workList;
 
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
-                ICFG<Method, Node> icfg) {
+                ICFG<Method, Node> icfg, DependencyGraph<Node> dependencies) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.dependencies = dependencies;
+        this.compactICFG = icfg instanceof CompactICFG<Method, Node> compact ?
+                compact : null;
     }
 
     DataflowResult<Node, Fact> solve() {
@@ -65,4 +81,41 @@ class InterSolver<Method, Node, Fact> {
     private void doSolve() {
         // TODO - finish me
     }
+
+    /**
+     * Adds the nodes which depend on given node through extra dependency
+     * edges to the work list. This should be called when the OUT fact
+     * of node has been changed, in addition to adding its successors.
+     */
+    private void addDependentsToWorkList(Node node) {
+        dependencies.forEachSucc(node, workList::add);
+    }
+
+    /**
+     * Applies given action to the in edges of given node. On a
+     * {@link CompactICFG}, the edges are visited without allocating
+     * edge sets or iterators, thus the solvers should visit the edges
+     * through this method, with an action which is not created per node.
+     */
+    void forEachInEdge(Node node, Consumer<ICFGEdge<Node>> action) {
+        if (compactICFG != null) {
+            compactICFG.forEachInEdge(node, action);
+        } else {
+            icfg.getInEdgesOf(node).forEach(action);
+        }
+    }
+
+    /**
+     * Applies given action to the out edges of given node. On a
+     * {@link CompactICFG}, the edges are visited without allocating
+     * edge sets or iterators, thus the solvers should visit the edges
+     * through this method, with an action which is not created per node.
+     */
+    void forEachOutEdge(Node node, Consumer<ICFGEdge<Node>> action) {
+        if (compactICFG != null) {
+            compactICFG.forEachOutEdge(node, action);
+        } else {
+            icfg.getOutEdgesOf(node).forEach(action);
+        }
+    }
 }
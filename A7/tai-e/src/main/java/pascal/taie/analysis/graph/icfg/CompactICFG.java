@@ -0,0 +1,459 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * ICFG which stores the edges of another ICFG in compressed sparse row
+ * (CSR) arrays. The nodes are numbered globally from 0, and the out edges
+ * of node i are the edges numbered from {@code outOffsets[i]} (inclusive)
+ * to {@code outOffsets[i + 1]} (exclusive), whose targets and kinds are
+ * kept in an int array and a byte array. The in edges are indexed in the
+ * same way.
+ * <p>
+ * The visitor APIs, e.g., {@link #forEachOutEdge(int, EdgeVisitor)},
+ * iterate the arrays directly, thus they allocate neither sets nor
+ * iterators, and the solvers can dispatch on the kinds of edges without
+ * type checks. The edge objects of the underlying ICFG are kept (but not
+ * copied) in an array for the edge transfer functions which need them.
+ * The underlying ICFG itself is not kept: all queries are answered from
+ * the arrays, and the edge and node sets returned by this ICFG are
+ * unmodifiable views of them.
+ *
+ * @param <Method> type of methods
+ * @param <Node>   type of nodes
+ */
+public class CompactICFG<Method, Node> implements ICFG<Method, Node> {
+
+    /**
+     * Kinds of edges.
+     */
+    public static final byte NORMAL = 0;
+
+    public static final byte CALL_TO_RETURN = 1;
+
+    public static final byte CALL = 2;
+
+    public static final byte RETURN = 3;
+
+    private final List<Method> entryMethods = new ArrayList<>();
+
+    private final Map<Node, Integer> ids = new HashMap<>();
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    /**
+     * Containing methods of the nodes.
+     */
+    private final List<Method> containers = new ArrayList<>();
+
+    private final BitSet callSites = new BitSet();
+
+    private final Map<Method, Node> entries = new HashMap<>();
+
+    private final Map<Method, Node> exits = new HashMap<>();
+
+    private final int[] outOffsets;
+
+    private final int[] inOffsets;
+
+    /**
+     * Edges in the order of their sources, i.e., edge e is
+     * the (e - outOffsets[source])-th out edge of its source.
+     */
+    private final ICFGEdge<Node>[] edges;
+
+    private final byte[] kinds;
+
+    private final int[] sources;
+
+    private final int[] targets;
+
+    /**
+     * Edges in the order of their targets.
+     */
+    private final int[] inEdges;
+
+    private final Set<Node> nodeSet = new AbstractSet<>() {
+
+        @Override
+        public boolean contains(Object o) {
+            return ids.containsKey(o);
+        }
+
+        @Override
+        public Iterator<Node> iterator() {
+            return Collections.unmodifiableList(nodes).iterator();
+        }
+
+        @Override
+        public int size() {
+            return nodes.size();
+        }
+    };
+
+    public CompactICFG(ICFG<Method, Node> icfg) {
+        icfg.entryMethods().forEach(entryMethods::add);
+        icfg.forEach(node -> {
+            int id = nodes.size();
+            ids.put(node, id);
+            nodes.add(node);
+            Method method = icfg.getContainingMethodOf(node);
+            containers.add(method);
+            if (icfg.isCallSite(node)) {
+                callSites.set(id);
+            }
+            if (!entries.containsKey(method)) {
+                entries.put(method, icfg.getEntryOf(method));
+                exits.put(method, icfg.getExitOf(method));
+            }
+        });
+        int nodeCount = nodes.size();
+        outOffsets = new int[nodeCount + 1];
+        inOffsets = new int[nodeCount + 1];
+        for (int i = 0; i < nodeCount; ++i) {
+            outOffsets[i + 1] = outOffsets[i] + icfg.getOutEdgesOf(nodes.get(i)).size();
+        }
+        int edgeCount = outOffsets[nodeCount];
+        edges = newEdgeArray(edgeCount);
+        kinds = new byte[edgeCount];
+        sources = new int[edgeCount];
+        targets = new int[edgeCount];
+        int e = 0;
+        for (int i = 0; i < nodeCount; ++i) {
+            for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(nodes.get(i))) {
+                edges[e] = edge;
+                kinds[e] = kindOf(edge);
+                sources[e] = i;
+                targets[e] = ids.get(edge.getTarget());
+                ++inOffsets[targets[e] + 1];
+                ++e;
+            }
+        }
+        for (int i = 0; i < nodeCount; ++i) {
+            inOffsets[i + 1] += inOffsets[i];
+        }
+        inEdges = new int[edgeCount];
+        int[] next = new int[nodeCount];
+        for (e = 0; e < edgeCount; ++e) {
+            int target = targets[e];
+            inEdges[inOffsets[target] + next[target]++] = e;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <Node> ICFGEdge<Node>[] newEdgeArray(int length) {
+        return new ICFGEdge[length];
+    }
+
+    private static byte kindOf(ICFGEdge<?> edge) {
+        if (edge instanceof NormalEdge) {
+            return NORMAL;
+        } else if (edge instanceof CallToReturnEdge) {
+            return CALL_TO_RETURN;
+        } else if (edge instanceof CallEdge) {
+            return CALL;
+        } else {
+            return RETURN;
+        }
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return nodes.size();
+    }
+
+    public int getNumberOfEdges() {
+        return edges.length;
+    }
+
+    /**
+     * @return the number of given node, or -1 if the node is not in this ICFG.
+     */
+    public int getId(Node node) {
+        Integer id = ids.get(node);
+        return id != null ? id : -1;
+    }
+
+    public Node getNode(int id) {
+        return nodes.get(id);
+    }
+
+    public ICFGEdge<Node> getEdge(int edge) {
+        return edges[edge];
+    }
+
+    public byte getKind(int edge) {
+        return kinds[edge];
+    }
+
+    public int getSource(int edge) {
+        return sources[edge];
+    }
+
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Visits the out edges of given node.
+     */
+    public void forEachOutEdge(int node, EdgeVisitor visitor) {
+        for (int e = outOffsets[node]; e < outOffsets[node + 1]; ++e) {
+            visitor.visit(e, targets[e], kinds[e]);
+        }
+    }
+
+    /**
+     * Visits the in edges of given node.
+     */
+    public void forEachInEdge(int node, EdgeVisitor visitor) {
+        for (int i = inOffsets[node]; i < inOffsets[node + 1]; ++i) {
+            int e = inEdges[i];
+            visitor.visit(e, sources[e], kinds[e]);
+        }
+    }
+
+    /**
+     * Applies given action to the out edges of given node.
+     */
+    public void forEachOutEdge(Node node, Consumer<ICFGEdge<Node>> action) {
+        int id = getId(node);
+        if (id >= 0) {
+            for (int e = outOffsets[id]; e < outOffsets[id + 1]; ++e) {
+                action.accept(edges[e]);
+            }
+        }
+    }
+
+    /**
+     * Applies given action to the in edges of given node.
+     */
+    public void forEachInEdge(Node node, Consumer<ICFGEdge<Node>> action) {
+        int id = getId(node);
+        if (id >= 0) {
+            for (int i = inOffsets[id]; i < inOffsets[id + 1]; ++i) {
+                action.accept(edges[inEdges[i]]);
+            }
+        }
+    }
+
+    @Override
+    public Stream<Method> entryMethods() {
+        return entryMethods.stream();
+    }
+
+    @Override
+    public Set<ICFGEdge<Node>> getInEdgesOf(Node node) {
+        int id = getId(node);
+        return id >= 0 ?
+                new EdgeSet(inEdges, inOffsets[id], inOffsets[id + 1]) :
+                Set.of();
+    }
+
+    @Override
+    public Set<ICFGEdge<Node>> getOutEdgesOf(Node node) {
+        int id = getId(node);
+        return id >= 0 ?
+                new EdgeSet(null, outOffsets[id], outOffsets[id + 1]) :
+                Set.of();
+    }
+
+    @Override
+    public Set<Method> getCalleesOf(Node callSite) {
+        Set<Method> callees = Sets.newHybridSet();
+        forEachOutEdge(getIdOf(callSite), (e, target, kind) -> {
+            if (kind == CALL) {
+                callees.add(containers.get(target));
+            }
+        });
+        return callees;
+    }
+
+    @Override
+    public Set<Node> getReturnSitesOf(Node callSite) {
+        Set<Node> retSites = Sets.newHybridSet();
+        forEachOutEdge(getIdOf(callSite), (e, target, kind) -> {
+            if (kind == CALL_TO_RETURN) {
+                retSites.add(nodes.get(target));
+            }
+        });
+        return retSites;
+    }
+
+    @Override
+    public Node getEntryOf(Method method) {
+        return entries.get(method);
+    }
+
+    @Override
+    public Node getExitOf(Method method) {
+        return exits.get(method);
+    }
+
+    @Override
+    public Set<Node> getCallersOf(Method method) {
+        Set<Node> callers = Sets.newHybridSet();
+        Node entry = entries.get(method);
+        if (entry != null) {
+            forEachInEdge(getIdOf(entry), (e, source, kind) -> {
+                if (kind == CALL) {
+                    callers.add(nodes.get(source));
+                }
+            });
+        }
+        return callers;
+    }
+
+    @Override
+    public Method getContainingMethodOf(Node node) {
+        return containers.get(getIdOf(node));
+    }
+
+    @Override
+    public boolean isCallSite(Node node) {
+        return callSites.get(getIdOf(node));
+    }
+
+    @Override
+    public boolean hasNode(Node node) {
+        return ids.containsKey(node);
+    }
+
+    @Override
+    public boolean hasEdge(Node source, Node target) {
+        int s = getId(source), t = getId(target);
+        if (s >= 0 && t >= 0) {
+            for (int e = outOffsets[s]; e < outOffsets[s + 1]; ++e) {
+                if (targets[e] == t) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<Node> getPredsOf(Node node) {
+        return Views.toMappedSet(getInEdgesOf(node), ICFGEdge::getSource);
+    }
+
+    @Override
+    public Set<Node> getSuccsOf(Node node) {
+        return Views.toMappedSet(getOutEdgesOf(node), ICFGEdge::getTarget);
+    }
+
+    @Override
+    public Set<Node> getNodes() {
+        return nodeSet;
+    }
+
+    /**
+     * @return the number of given node, which must be in this ICFG.
+     */
+    private int getIdOf(Node node) {
+        Integer id = ids.get(node);
+        if (id == null) {
+            throw new IllegalArgumentException(node + " is not in the ICFG");
+        }
+        return id;
+    }
+
+    /**
+     * Unmodifiable view of the edges numbered from {@code from} (inclusive)
+     * to {@code to} (exclusive) in given order, or in the order of their
+     * sources if the order is null.
+     */
+    private class EdgeSet extends AbstractSet<ICFGEdge<Node>> {
+
+        private final int[] order;
+
+        private final int from;
+
+        private final int to;
+
+        private EdgeSet(int[] order, int from, int to) {
+            this.order = order;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Iterator<ICFGEdge<Node>> iterator() {
+            return new Iterator<>() {
+
+                private int i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < to;
+                }
+
+                @Override
+                public ICFGEdge<Node> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int e = order != null ? order[i] : i;
+                    ++i;
+                    return edges[e];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    /**
+     * Visitor of the edges of a node.
+     */
+    @FunctionalInterface
+    public interface EdgeVisitor {
+
+        /**
+         * @param edge the number of the edge.
+         * @param node the number of the other node of the edge, i.e.,
+         *             the target of an out edge or the source of an in edge.
+         * @param kind the kind of the edge.
+         */
+        void visit(int edge, int node, byte kind);
+    }
+}
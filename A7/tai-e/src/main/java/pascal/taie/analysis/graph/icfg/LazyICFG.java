@@ -0,0 +1,311 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ICFG which is built on demand. The edges of a method, i.e., the
+ * {@link NormalEdge}s and {@link CallToReturnEdge}s inside the method,
+ * and the {@link CallEdge}s and {@link ReturnEdge}s of its call sites,
+ * are created when the edges of a node of the method are first queried.
+ * The in edges of the entry node and the out edges of the exit node of
+ * a method additionally require the edges of all callers of the method.
+ * <p>
+ * Thus, the memory footprint of this ICFG follows the part of the program
+ * that an analysis actually explores, e.g., a demand-driven analysis only
+ * builds the methods which can reach its queries. The nodes of a method are
+ * indexed when the method is first reached through this ICFG. A query on
+ * a node of a method which has not been reached indexes the nodes of all
+ * reachable methods, without building their edges. Only the queries on the
+ * whole graph, i.e., {@link #getNodes()} and the iteration, build the edges
+ * of all reachable methods, and {@link #getIndexedNodes()} provides all
+ * nodes without building the edges.
+ * <p>
+ * This class is not thread-safe. Concurrent solvers should build the whole
+ * graph, e.g., by iterating it, before they query it from multiple threads.
+ */
+public class LazyICFG extends AbstractICFG<JMethod, Stmt> {
+
+    private static final Logger logger = LogManager.getLogger(LazyICFG.class);
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> inEdges = Maps.newMultiMap();
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> outEdges = Maps.newMultiMap();
+
+    /**
+     * CFGs of the nodes of the methods that have been indexed.
+     */
+    private final Map<Stmt, CFG<Stmt>> stmtToCFG = new HashMap<>();
+
+    /**
+     * Methods whose edges have been built.
+     */
+    private final Set<JMethod> builtMethods = Sets.newSet();
+
+    private boolean isIndexed;
+
+    private boolean isComplete;
+
+    public LazyICFG(CallGraph<Stmt, JMethod> callGraph) {
+        super(callGraph);
+    }
+
+    /**
+     * @return the number of methods whose edges have been built.
+     */
+    public int getBuiltMethodCount() {
+        return builtMethods.size();
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt stmt) {
+        buildEdgesOf(stmt);
+        return inEdges.get(stmt);
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt stmt) {
+        buildEdgesOf(stmt);
+        return outEdges.get(stmt);
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        return register(ICFGBuilder.getCFGOf(method)).getEntry();
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        return register(ICFGBuilder.getCFGOf(method)).getExit();
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return getCFGOf(callSite).getSuccsOf(callSite);
+    }
+
+    @Override
+    public JMethod getContainingMethodOf(Stmt stmt) {
+        return getCFGOf(stmt).getMethod();
+    }
+
+    @Override
+    public boolean isCallSite(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public boolean hasNode(Stmt stmt) {
+        if (!stmtToCFG.containsKey(stmt)) {
+            indexAll();
+        }
+        return stmtToCFG.containsKey(stmt);
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return getOutEdgesOf(source)
+                .stream()
+                .anyMatch(edge -> edge.getTarget().equals(target));
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt stmt) {
+        return Views.toMappedSet(getInEdgesOf(stmt), ICFGEdge::getSource);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt stmt) {
+        return Views.toMappedSet(getOutEdgesOf(stmt), ICFGEdge::getTarget);
+    }
+
+    @Override
+    public Set<Stmt> getNodes() {
+        buildAll();
+        return Collections.unmodifiableSet(stmtToCFG.keySet());
+    }
+
+    /**
+     * @return all nodes of this ICFG. Unlike {@link #getNodes()}, this
+     * method indexes the nodes of the reachable methods without building
+     * their edges.
+     */
+    public Set<Stmt> getIndexedNodes() {
+        indexAll();
+        return Collections.unmodifiableSet(stmtToCFG.keySet());
+    }
+
+    /**
+     * @return the CFG containing given node, which must be
+     * in a reachable method.
+     */
+    private CFG<Stmt> getCFGOf(Stmt stmt) {
+        CFG<Stmt> cfg = stmtToCFG.get(stmt);
+        if (cfg == null) {
+            indexAll();
+            cfg = stmtToCFG.get(stmt);
+            if (cfg == null) {
+                throw new IllegalArgumentException(stmt + " is not in the ICFG");
+            }
+        }
+        return cfg;
+    }
+
+    /**
+     * Indexes the nodes of given CFG, without building the edges
+     * of its method.
+     */
+    private CFG<Stmt> register(CFG<Stmt> cfg) {
+        if (stmtToCFG.putIfAbsent(cfg.getEntry(), cfg) == null) {
+            cfg.forEach(stmt -> stmtToCFG.put(stmt, cfg));
+        }
+        return cfg;
+    }
+
+    /**
+     * Indexes the nodes of all reachable methods, without building
+     * their edges.
+     */
+    private void indexAll() {
+        if (!isIndexed) {
+            callGraph.forEach(method -> {
+                CFG<Stmt> cfg = ICFGBuilder.getCFGOf(method);
+                if (cfg != null) {
+                    register(cfg);
+                }
+            });
+            isIndexed = true;
+        }
+    }
+
+    /**
+     * Builds the edges which are necessary to answer
+     * the edge queries on given node.
+     */
+    private void buildEdgesOf(Stmt stmt) {
+        if (isComplete) {
+            return;
+        }
+        CFG<Stmt> cfg = getCFGOf(stmt);
+        JMethod method = cfg.getMethod();
+        build(method);
+        if (stmt.equals(cfg.getEntry()) || stmt.equals(cfg.getExit())) {
+            // call edges to the entry and return edges from the exit
+            // are built along with the callers
+            callGraph.getCallersOf(method).forEach(callSite ->
+                    build(callGraph.getContainerOf(callSite)));
+        }
+    }
+
+    private void buildAll() {
+        if (!isComplete) {
+            callGraph.forEach(this::build);
+            isIndexed = true;
+            isComplete = true;
+        }
+    }
+
+    /**
+     * Builds the edges inside given method, and the call and return edges
+     * of its call sites. The edges are the same as the ones built by the
+     * default ICFG for the method.
+     */
+    private void build(JMethod method) {
+        if (!builtMethods.add(method)) {
+            return;
+        }
+        CFG<Stmt> cfg = ICFGBuilder.getCFGOf(method);
+        if (cfg == null) {
+            logger.warn("CFG of {} is absent, try to fix this" +
+                    " by adding option -scope=reachable", method);
+            return;
+        }
+        register(cfg);
+        cfg.forEach(stmt -> {
+            cfg.getOutEdgesOf(stmt).forEach(edge -> {
+                ICFGEdge<Stmt> local = isCallSite(stmt) ?
+                        new CallToReturnEdge<>(edge) :
+                        new NormalEdge<>(edge);
+                outEdges.put(stmt, local);
+                inEdges.put(edge.getTarget(), local);
+            });
+            if (isCallSite(stmt)) {
+                getCalleesOf(stmt).forEach(callee -> buildCallEdges(stmt, callee));
+            }
+        });
+    }
+
+    private void buildCallEdges(Stmt callSite, JMethod callee) {
+        CFG<Stmt> calleeCFG = ICFGBuilder.getCFGOf(callee);
+        if (calleeCFG == null) {
+            logger.warn("CFG of {} is missing", callee);
+            return;
+        }
+        register(calleeCFG);
+        Stmt entry = calleeCFG.getEntry();
+        CallEdge<Stmt> call = new CallEdge<>(callSite, entry, callee);
+        outEdges.put(callSite, call);
+        inEdges.put(entry, call);
+        Stmt exit = calleeCFG.getExit();
+        Set<Var> retVars = Sets.newHybridSet();
+        Set<ClassType> exceptions = Sets.newHybridSet();
+        calleeCFG.getInEdgesOf(exit).forEach(edge -> {
+            if (edge.getKind() == Edge.Kind.RETURN) {
+                Return ret = (Return) edge.getSource();
+                if (ret.getValue() != null) {
+                    retVars.add(ret.getValue());
+                }
+            }
+            if (edge.isExceptional()) {
+                exceptions.addAll(edge.getExceptions());
+            }
+        });
+        getReturnSitesOf(callSite).forEach(retSite -> {
+            ReturnEdge<Stmt> ret = new ReturnEdge<>(
+                    exit, retSite, callSite, retVars, exceptions);
+            outEdges.put(exit, ret);
+            inEdges.put(retSite, ret);
+        });
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DependencyGraphTest {
+
+    @Test
+    public void testEmpty() {
+        DependencyGraph<String> graph = new DependencyGraph<>();
+        assertTrue(graph.isEmpty());
+        assertEquals(0, graph.getEdgeCount());
+        assertEquals(List.of(), succsOf(graph, "a"));
+        assertEquals(List.of(), predsOf(graph, "a"));
+    }
+
+    @Test
+    public void testAddEdge() {
+        DependencyGraph<String> graph = new DependencyGraph<>();
+        graph.addEdge("a", "b");
+        graph.addEdge("a", "c");
+        graph.addEdge("c", "a");
+        assertFalse(graph.isEmpty());
+        assertEquals(3, graph.getEdgeCount());
+        assertEquals(List.of("b", "c"), succsOf(graph, "a"));
+        assertEquals(List.of(), succsOf(graph, "b"));
+        assertEquals(List.of("a"), succsOf(graph, "c"));
+        assertEquals(List.of("c"), predsOf(graph, "a"));
+        assertEquals(List.of("a"), predsOf(graph, "b"));
+        assertEquals(List.of("a"), predsOf(graph, "c"));
+    }
+
+    @Test
+    public void testDuplicateEdges() {
+        DependencyGraph<String> graph = new DependencyGraph<>();
+        graph.addEdge("a", "b");
+        graph.addEdge("a", "b");
+        graph.addEdge("a", "a");
+        assertEquals(3, graph.getEdgeCount());
+        assertEquals(List.of("b", "b", "a"), succsOf(graph, "a"));
+        assertEquals(List.of("a", "a"), predsOf(graph, "b"));
+        assertEquals(List.of("a"), predsOf(graph, "a"));
+    }
+
+    /**
+     * Adds random edges among more nodes than the initial capacity,
+     * and more edges per node than the initial length of edge arrays,
+     * and compares the graph with lists of edges.
+     */
+    @Test
+    public void testGrowth() {
+        Random random = new Random(0);
+        DependencyGraph<Integer> graph = new DependencyGraph<>();
+        Map<Integer, List<Integer>> succs = new HashMap<>();
+        Map<Integer, List<Integer>> preds = new HashMap<>();
+        int nodes = 100, edges = 2000;
+        for (int i = 0; i < edges; ++i) {
+            int source = random.nextInt(nodes), target = random.nextInt(nodes);
+            graph.addEdge(source, target);
+            succs.computeIfAbsent(source, n -> new ArrayList<>()).add(target);
+            preds.computeIfAbsent(target, n -> new ArrayList<>()).add(source);
+        }
+        assertEquals(edges, graph.getEdgeCount());
+        for (int node = 0; node < nodes; ++node) {
+            assertEquals(succs.getOrDefault(node, List.of()),
+                    succsOf(graph, node));
+            assertEquals(preds.getOrDefault(node, List.of()),
+                    predsOf(graph, node));
+        }
+    }
+
+    private static <N> List<N> succsOf(DependencyGraph<N> graph, N node) {
+        List<N> succs = new ArrayList<>();
+        graph.forEachSucc(node, succs::add);
+        return succs;
+    }
+
+    private static <N> List<N> predsOf(DependencyGraph<N> graph, N node) {
+        List<N> preds = new ArrayList<>();
+        graph.forEachPred(node, preds::add);
+        return preds;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Test;
+import pascal.taie.analysis.graph.icfg.TestICFG;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ParallelInterSolverTest {
+
+    /**
+     * The parallel solver analyzes all nodes of the ICFG, including
+     * the nodes of unreachable methods, thus its result equals the
+     * global fixed point on all nodes, whatever the number of threads.
+     */
+    @Test
+    public void testSameAsGlobalFixedPoint() {
+        Random random = new Random(3);
+        for (int i = 0; i < 300; ++i) {
+            TestICFG icfg = InterSolverTests.makeRandomICFG(random);
+            var analysis = new InterSolverTests.TestAnalysis();
+            var expected = InterSolverTests.solveGlobally(
+                    analysis, icfg, new TreeSet<>(icfg.getNodes()));
+            for (int threads : new int[]{1, 2, 8}) {
+                var result = new ParallelInterSolver<>(
+                        analysis, icfg, threads).solve();
+                for (Integer node : icfg) {
+                    // the in fact of the entry is the boundary fact
+                    // only in the global fixed point
+                    if (node != 0) {
+                        assertEquals("in-fact of " + node + " with "
+                                        + threads + " threads",
+                                expected.getInFact(node), result.getInFact(node));
+                    }
+                    assertEquals("out-fact of " + node + " with "
+                                    + threads + " threads",
+                            expected.getOutFact(node), result.getOutFact(node));
+                }
+            }
+        }
+    }
+
+    /**
+     * An exception thrown by the analysis in a worker thread
+     * reaches the caller of {@link ParallelInterSolver#solve()}.
+     */
+    @Test
+    public void testExceptionReachesCaller() {
+        TestICFG icfg = new TestICFG();
+        icfg.addMethod(4);
+        icfg.addMethod(3);
+        icfg.normal(0, 1).call(1, 2, 1).normal(2, 3);
+        icfg.normal(4, 5).normal(5, 6);
+        RuntimeException exception = new IllegalStateException("failure");
+        var analysis = new InterSolverTests.TestAnalysis() {
+            @Override
+            public boolean transferNode(Integer node, Set<String> in, Set<String> out) {
+                if (node == 5) {
+                    throw exception;
+                }
+                return super.transferNode(node, in, out);
+            }
+        };
+        for (int threads : new int[]{1, 2, 8}) {
+            try {
+                new ParallelInterSolver<>(analysis, icfg, threads).solve();
+                fail("expected an exception with " + threads + " threads");
+            } catch (RuntimeException e) {
+                assertSame(exception, e.getCause() != null ? e.getCause() : e);
+            }
+        }
+    }
+}